@@ -2,9 +2,11 @@ package com.example.demo;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 
 @SpringBootApplication
+@ImportRuntimeHints(DemoRuntimeHints.class)
 public class DemoApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,47 @@
+package com.example.demo.jdbc;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class JdbcMetricsConfig {
+
+    @Bean
+    static BeanPostProcessor meteredDataSourcePostProcessor(
+            ObjectProvider<MeterRegistry> registry,
+            @Value("${student.jdbc.sql-log-sample-rate:0}") double sqlLogSampleRate) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof MeteredDataSource)) {
+                    return new MeteredDataSource(dataSource, registry.getObject(), sqlLogSampleRate);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    FilterRegistrationBean<StatementCountFilter> statementCountFilter(
+            MeterRegistry registry,
+            @Value("${student.jdbc.statement-count-header:false}") boolean exposeHeader) {
+        FilterRegistrationBean<StatementCountFilter> registration = new FilterRegistrationBean<>(
+                new StatementCountFilter(registry, exposeHeader));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+
+    @Bean
+    StatementBudgetAspect statementBudgetAspect(
+            MeterRegistry registry,
+            @Value("${student.jdbc.statement-budget.mode:log}") StatementBudgetAspect.Mode mode) {
+        return new StatementBudgetAspect(registry, mode);
+    }
+}
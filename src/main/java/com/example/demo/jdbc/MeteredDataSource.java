@@ -0,0 +1,131 @@
+package com.example.demo.jdbc;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Times every statement execution, feeds StatementCounter and logs a sample of
+// the SQL on the com.example.demo.jdbc.SQL debug logger.
+public class MeteredDataSource extends DelegatingDataSource {
+
+    static final String METRIC_NAME = "jdbc.statements";
+
+    private static final Logger SQL_LOG = LoggerFactory.getLogger("com.example.demo.jdbc.SQL");
+    private static final String OTHER = "other";
+
+    private final Map<String, Timer> timers;
+    private final double sqlLogSampleRate;
+
+    public MeteredDataSource(DataSource target, MeterRegistry registry, double sqlLogSampleRate) {
+        super(target);
+        this.timers = Stream.of("select", "insert", "update", "delete", OTHER)
+                .collect(Collectors.toUnmodifiableMap(
+                        operation -> operation,
+                        operation -> Timer.builder(METRIC_NAME)
+                                .description("JDBC statement executions")
+                                .tag("operation", operation)
+                                .register(registry)));
+        this.sqlLogSampleRate = sqlLogSampleRate;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return meter(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return meter(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private Connection meter(Connection connection) {
+        return proxy(Connection.class, (method, args) -> {
+            Object result = invoke(connection, method, args);
+            return switch (method.getName()) {
+                case "createStatement" -> meter(Statement.class, (Statement) result, null);
+                case "prepareStatement" -> meter(PreparedStatement.class, (PreparedStatement) result, (String) args[0]);
+                case "prepareCall" -> meter(CallableStatement.class, (CallableStatement) result, (String) args[0]);
+                default -> result;
+            };
+        });
+    }
+
+    private <S extends Statement> S meter(Class<S> type, S statement, String preparedSql) {
+        return proxy(type, (method, args) -> {
+            if (!method.getName().startsWith("execute")) {
+                return invoke(statement, method, args);
+            }
+            String sql = preparedSql != null ? preparedSql
+                    : args != null && args.length > 0 && args[0] instanceof String s ? s
+                    : null;
+            long start = System.nanoTime();
+            try {
+                return invoke(statement, method, args);
+            } finally {
+                record(sql, System.nanoTime() - start);
+            }
+        });
+    }
+
+    private void record(String sql, long elapsedNanos) {
+        timers.get(operation(sql)).record(elapsedNanos, TimeUnit.NANOSECONDS);
+        StatementCounter.increment();
+        if (sqlLogSampleRate > 0 && SQL_LOG.isDebugEnabled()
+                && ThreadLocalRandom.current().nextDouble() < sqlLogSampleRate) {
+            SQL_LOG.debug("{} took {} µs", sql, TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+        }
+    }
+
+    static String operation(String sql) {
+        if (sql == null) {
+            return OTHER;
+        }
+        String trimmed = sql.stripLeading();
+        int end = 0;
+        while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) {
+            end++;
+        }
+        String keyword = trimmed.substring(0, end).toLowerCase(Locale.ROOT);
+        return switch (keyword) {
+            case "select", "insert", "update", "delete" -> keyword;
+            default -> OTHER;
+        };
+    }
+
+    private interface Handler {
+        Object handle(Method method, Object[] args) throws Throwable;
+    }
+
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return type.cast(Proxy.newProxyInstance(
+                MeteredDataSource.class.getClassLoader(),
+                new Class<?>[]{type},
+                (proxy, method, args) -> handler.handle(method, args)));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.demo.jdbc;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Sends connections for readOnly transactions to the replicas (round robin) and
+// everything else to the primary. The routing decision needs the transaction's
+// readOnly flag, which is only set after the transaction manager asked for a
+// connection, so this has to sit behind a LazyConnectionDataSourceProxy.
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private final List<String> replicaKeys;
+    private final ReplicaStickiness stickiness;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReadReplicaRoutingDataSource(DataSource primary,
+                                        List<? extends DataSource> replicas,
+                                        ReplicaStickiness stickiness) {
+        if (replicas.isEmpty()) {
+            throw new IllegalArgumentException("At least one replica is required");
+        }
+        Map<Object, Object> targets = new HashMap<>();
+        List<String> keys = new ArrayList<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            keys.add("replica-" + i);
+            targets.put(keys.get(i), replicas.get(i));
+        }
+        this.replicaKeys = List.copyOf(keys);
+        this.stickiness = stickiness;
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            // schema setup, metadata lookups and anything else outside a transaction
+            return PRIMARY;
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            stickiness.recordWrite();
+            return PRIMARY;
+        }
+        if (stickiness.mustReadPrimary()) {
+            return PRIMARY;
+        }
+        return replicaKeys.get(Math.floorMod(next.getAndIncrement(), replicaKeys.size()));
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.demo.jdbc;
+
+import com.example.demo.web.ClientIdentity;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Replaces the auto-configured pool with a primary pool plus one pool per
+// student.datasource.replica-urls entry. Every pool takes the
+// spring.datasource.hikari settings and the primary's credentials.
+@Configuration
+@ConditionalOnProperty("student.datasource.replica-urls")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    ReplicaStickiness replicaStickiness(
+            @Value("${student.datasource.sticky-window:5s}") Duration stickyWindow) {
+        return new ReplicaStickiness(stickyWindow);
+    }
+
+    @Bean
+    FilterRegistrationBean<ReplicaStickinessFilter> replicaStickinessFilter(ReplicaStickiness stickiness,
+                                                                            ClientIdentity clientIdentity) {
+        FilterRegistrationBean<ReplicaStickinessFilter> registration = new FilterRegistrationBean<>(
+                new ReplicaStickinessFilter(stickiness, clientIdentity));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+
+    @Bean(destroyMethod = "close")
+    Pools dataSourcePools(DataSourceProperties properties,
+                          Environment environment,
+                          ObjectProvider<MeterRegistry> registry,
+                          @Value("${student.datasource.replica-urls}") List<String> replicaUrls) {
+        HikariDataSource primary = pool(properties, environment, registry,
+                "student-primary", properties.determineUrl());
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : replicaUrls) {
+            HikariDataSource replica = pool(properties, environment, registry,
+                    "student-replica-" + replicas.size(), url.trim());
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+        return new Pools(primary, replicas);
+    }
+
+    @Bean
+    DataSource dataSource(Pools pools, ReplicaStickiness stickiness) {
+        return new LazyConnectionDataSourceProxy(
+                new ReadReplicaRoutingDataSource(pools.primary(), pools.replicas(), stickiness));
+    }
+
+    private static HikariDataSource pool(DataSourceProperties properties,
+                                         Environment environment,
+                                         ObjectProvider<MeterRegistry> registry,
+                                         String name,
+                                         String url) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        // the pools are not beans, so the actuator pool metrics would not find them
+        registry.ifAvailable(pool::setMetricRegistry);
+        return pool;
+    }
+
+    // kept out of the DataSource beans so the metering post-processor only wraps the router
+    record Pools(HikariDataSource primary, List<HikariDataSource> replicas) implements AutoCloseable {
+
+        @Override
+        public void close() {
+            replicas.forEach(HikariDataSource::close);
+            primary.close();
+        }
+    }
+}
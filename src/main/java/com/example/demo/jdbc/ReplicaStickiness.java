@@ -0,0 +1,78 @@
+package com.example.demo.jdbc;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+// Read-your-writes for replica routing. A client that wrote through the primary
+// keeps reading from the primary for stickyWindow, long enough for the replicas
+// to catch up with its own change. The recent writers kept here only cover the
+// next request landing on this instance from the same client, so the request
+// can also say it wrote recently (ReplicaStickinessFilter keeps that in a
+// cookie) and be told when it writes, for any instance to honour.
+public class ReplicaStickiness {
+
+    private static final ThreadLocal<Scope> SCOPE = new ThreadLocal<>();
+
+    private final Duration stickyWindow;
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReplicaStickiness(Duration stickyWindow) {
+        this.stickyWindow = stickyWindow;
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(stickyWindow)
+                .maximumSize(100_000)
+                .build();
+    }
+
+    public Duration stickyWindow() {
+        return stickyWindow;
+    }
+
+    public void begin(String client) {
+        begin(client, false, () -> {
+        });
+    }
+
+    // onFirstWrite runs when the request first takes a primary connection to write
+    public void begin(String client, boolean wroteRecently, Runnable onFirstWrite) {
+        SCOPE.set(new Scope(client, wroteRecently, onFirstWrite));
+    }
+
+    // the window starts when the request finishes, i.e. after its transactions committed
+    public void end() {
+        Scope scope = SCOPE.get();
+        SCOPE.remove();
+        if (scope != null && scope.wrote) {
+            recentWriters.put(scope.client, Boolean.TRUE);
+        }
+    }
+
+    void recordWrite() {
+        Scope scope = SCOPE.get();
+        if (scope != null && !scope.wrote) {
+            scope.wrote = true;
+            scope.onFirstWrite.run();
+        }
+    }
+
+    boolean mustReadPrimary() {
+        Scope scope = SCOPE.get();
+        return scope != null
+                && (scope.wrote || scope.wroteRecently || recentWriters.getIfPresent(scope.client) != null);
+    }
+
+    private static final class Scope {
+        private final String client;
+        private final boolean wroteRecently;
+        private final Runnable onFirstWrite;
+        private boolean wrote;
+
+        Scope(String client, boolean wroteRecently, Runnable onFirstWrite) {
+            this.client = client;
+            this.wroteRecently = wroteRecently;
+            this.onFirstWrite = onFirstWrite;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.demo.jdbc;
+
+import com.example.demo.web.ClientIdentity;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Identifies the client behind a request so ReplicaStickiness can pin it to the
+// primary after a write. A write also hands the client a cookie holding the end
+// of its sticky window, so its next reads stay on the primary whichever
+// instance they reach and whatever address they come from.
+public class ReplicaStickinessFilter extends OncePerRequestFilter {
+
+    static final String READ_PRIMARY_COOKIE = "student-read-primary-until";
+
+    private final ReplicaStickiness stickiness;
+    private final ClientIdentity clientIdentity;
+
+    public ReplicaStickinessFilter(ReplicaStickiness stickiness, ClientIdentity clientIdentity) {
+        this.stickiness = stickiness;
+        this.clientIdentity = clientIdentity;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        long now = System.currentTimeMillis();
+        long windowMillis = stickiness.stickyWindow().toMillis();
+        long readPrimaryUntil = readPrimaryUntil(request);
+        // a later end than one window from now did not come from us
+        boolean wroteRecently = readPrimaryUntil > now && readPrimaryUntil <= now + windowMillis;
+        stickiness.begin(clientIdentity.of(request), wroteRecently, () -> {
+            Cookie cookie = new Cookie(READ_PRIMARY_COOKIE, Long.toString(System.currentTimeMillis() + windowMillis));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.max(1, stickiness.stickyWindow().toSeconds()));
+            response.addCookie(cookie);
+        });
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            stickiness.end();
+        }
+    }
+
+    private static long readPrimaryUntil(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return 0;
+        }
+        for (Cookie cookie : cookies) {
+            if (READ_PRIMARY_COOKIE.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.demo.jdbc;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Maximum number of JDBC statements the annotated method may execute,
+// checked by StatementBudgetAspect.
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface StatementBudget {
+
+    int value();
+}
@@ -0,0 +1,67 @@
+package com.example.demo.jdbc;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+@Aspect
+public class StatementBudgetAspect {
+
+    static final String METRIC_NAME = "jdbc.statement.budget.exceeded";
+
+    private static final Logger LOG = LoggerFactory.getLogger(StatementBudgetAspect.class);
+
+    public enum Mode {
+        OFF, LOG, ENFORCE
+    }
+
+    private final MeterRegistry registry;
+    private final Mode mode;
+
+    public StatementBudgetAspect(MeterRegistry registry, Mode mode) {
+        this.registry = registry;
+        this.mode = mode;
+    }
+
+    @Around("@annotation(budget)")
+    public Object checkBudget(ProceedingJoinPoint joinPoint, StatementBudget budget) throws Throwable {
+        if (mode == Mode.OFF) {
+            return joinPoint.proceed();
+        }
+
+        // outside a request (e.g. a streamed response on an async thread) open our own scope
+        boolean ownScope = !StatementCounter.isActive();
+        if (ownScope) {
+            StatementCounter.begin();
+        }
+        int before = StatementCounter.current();
+        try {
+            Object result = joinPoint.proceed();
+            int statements = StatementCounter.current() - before;
+            if (statements > budget.value()) {
+                exceeded(joinPoint.getSignature().toShortString(), budget.value(), statements);
+            }
+            return result;
+        } finally {
+            if (ownScope) {
+                StatementCounter.end();
+            }
+        }
+    }
+
+    private void exceeded(String method, int budget, int statements) {
+        if (mode == Mode.ENFORCE) {
+            throw new StatementBudgetExceededException(method, budget, statements);
+        }
+        LOG.warn("{} executed {} statements, budget is {}", method, statements, budget);
+        Counter.builder(METRIC_NAME)
+                .description("Calls that executed more statements than their @StatementBudget")
+                .tag("method", method)
+                .register(registry)
+                .increment();
+    }
+}
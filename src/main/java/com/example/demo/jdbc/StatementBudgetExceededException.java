@@ -0,0 +1,8 @@
+package com.example.demo.jdbc;
+
+public class StatementBudgetExceededException extends IllegalStateException {
+
+    public StatementBudgetExceededException(String method, int budget, int statements) {
+        super(method + " executed " + statements + " statements, budget is " + budget);
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.demo.jdbc;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+// Records how many JDBC statements each request ran on the request thread.
+// Streamed responses write from an async thread and are not counted.
+public class StatementCountFilter extends OncePerRequestFilter {
+
+    static final String METRIC_NAME = "http.server.requests.statements";
+    public static final String STATEMENT_COUNT_HEADER = "X-Statement-Count";
+
+    private final MeterRegistry registry;
+    private final boolean exposeHeader;
+
+    public StatementCountFilter(MeterRegistry registry, boolean exposeHeader) {
+        this.registry = registry;
+        this.exposeHeader = exposeHeader;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        StatementCounter.begin();
+        StatementCountHeaderResponse wrapped = exposeHeader
+                ? new StatementCountHeaderResponse(response)
+                : null;
+        try {
+            filterChain.doFilter(request, wrapped != null ? wrapped : response);
+        } finally {
+            if (wrapped != null) {
+                wrapped.addStatementCountHeader();
+            }
+            int statements = StatementCounter.end();
+            Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            DistributionSummary.builder(METRIC_NAME)
+                    .description("JDBC statements executed per request")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri == null ? "UNKNOWN" : uri.toString())
+                    .register(registry)
+                    .record(statements);
+        }
+    }
+
+    // headers have to go out before the body, so the count is taken when the body is first touched
+    private static class StatementCountHeaderResponse extends HttpServletResponseWrapper {
+
+        private boolean headerAdded;
+
+        StatementCountHeaderResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        void addStatementCountHeader() {
+            if (!headerAdded && !isCommitted()) {
+                setHeader(STATEMENT_COUNT_HEADER, Integer.toString(StatementCounter.current()));
+            }
+            headerAdded = true;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            addStatementCountHeader();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            addStatementCountHeader();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            addStatementCountHeader();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            addStatementCountHeader();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            addStatementCountHeader();
+            super.sendError(sc);
+        }
+    }
+}
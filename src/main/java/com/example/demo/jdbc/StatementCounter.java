@@ -0,0 +1,36 @@
+package com.example.demo.jdbc;
+
+// Counts JDBC statements executed on the current thread while a scope is open.
+public final class StatementCounter {
+
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    private StatementCounter() {
+    }
+
+    public static void begin() {
+        COUNT.set(new int[1]);
+    }
+
+    public static int end() {
+        int[] count = COUNT.get();
+        COUNT.remove();
+        return count == null ? 0 : count[0];
+    }
+
+    public static boolean isActive() {
+        return COUNT.get() != null;
+    }
+
+    public static int current() {
+        int[] count = COUNT.get();
+        return count == null ? 0 : count[0];
+    }
+
+    static void increment() {
+        int[] count = COUNT.get();
+        if (count != null) {
+            count[0]++;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.demo.student;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.Optional;
+
+// Bounded and TTL-evicted, per instance. Retries that land on another instance
+// behind a load balancer need the jdbc store.
+public class InMemoryStudentIdempotencyStore implements StudentIdempotencyStore {
+
+    private final Cache<String, StudentIdempotencyRecord> records;
+
+    public InMemoryStudentIdempotencyStore(long maxKeys, Duration ttl) {
+        this.records = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    @Override
+    public Optional<StudentIdempotencyRecord> putIfAbsent(String key, StudentIdempotencyRecord inProgress) {
+        return Optional.ofNullable(records.asMap().putIfAbsent(key, inProgress));
+    }
+
+    @Override
+    public void complete(String key, StudentIdempotencyRecord completed) {
+        records.put(key, completed);
+    }
+
+    @Override
+    public void remove(String key) {
+        records.invalidate(key);
+    }
+}
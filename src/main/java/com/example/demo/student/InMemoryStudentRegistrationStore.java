@@ -0,0 +1,43 @@
+package com.example.demo.student;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+// Bounded and TTL-evicted, per instance. A status poll that lands on another
+// instance behind a load balancer, or follows a restart, needs the jdbc store.
+public class InMemoryStudentRegistrationStore implements StudentRegistrationStore {
+
+    private final Cache<UUID, StudentRegistration> registrations;
+
+    public InMemoryStudentRegistrationStore(long maxRegistrations, Duration retention) {
+        this.registrations = Caffeine.newBuilder()
+                .maximumSize(maxRegistrations)
+                .expireAfterWrite(retention)
+                .build();
+    }
+
+    @Override
+    public void add(StudentRegistration pending) {
+        registrations.put(pending.id(), pending);
+    }
+
+    @Override
+    public void update(List<StudentRegistration> updated) {
+        updated.forEach(registration -> registrations.put(registration.id(), registration));
+    }
+
+    @Override
+    public Optional<StudentRegistration> find(UUID id) {
+        return Optional.ofNullable(registrations.getIfPresent(id));
+    }
+
+    @Override
+    public void remove(UUID id) {
+        registrations.invalidate(id);
+    }
+}
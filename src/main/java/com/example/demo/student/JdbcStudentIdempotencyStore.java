@@ -0,0 +1,137 @@
+package com.example.demo.student;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Shared between instances through the student_idempotency_key table. The
+// primary key does the claiming; expired rows are purged at most once a minute.
+// A claim is a lease: if the instance running it dies before completing or
+// removing the key, a retry with the same request takes it over once the claim
+// is older than claimTimeout, rather than getting 409 until the ttl is up.
+public class JdbcStudentIdempotencyStore implements StudentIdempotencyStore {
+
+    private static final long PURGE_INTERVAL_MILLIS = Duration.ofMinutes(1).toMillis();
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration claimTimeout;
+    private final AtomicLong nextPurge = new AtomicLong();
+
+    public JdbcStudentIdempotencyStore(NamedParameterJdbcTemplate jdbcTemplate,
+                                       ObjectMapper objectMapper,
+                                       Duration ttl,
+                                       Duration claimTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.claimTimeout = claimTimeout;
+    }
+
+    @Override
+    public Optional<StudentIdempotencyRecord> putIfAbsent(String key, StudentIdempotencyRecord inProgress) {
+        Instant now = Instant.now();
+        purgeExpired(now);
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("key", key)
+                .addValue("fingerprint", inProgress.fingerprint())
+                .addValue("createdAt", Timestamp.from(now))
+                .addValue("expiredBefore", Timestamp.from(now.minus(ttl)))
+                .addValue("abandonedBefore", Timestamp.from(now.minus(claimTimeout)));
+
+        // an expired row for the same key must not block the new claim
+        jdbcTemplate.update("DELETE FROM student_idempotency_key"
+                + " WHERE idempotency_key = :key AND created_at < :expiredBefore", params);
+        try {
+            jdbcTemplate.update("INSERT INTO student_idempotency_key"
+                    + " (idempotency_key, fingerprint, created_at, claimed_at)"
+                    + " VALUES (:key, :fingerprint, :createdAt, :createdAt)", params);
+            return Optional.empty();
+        } catch (DuplicateKeyException e) {
+            return takeOver(params) ? Optional.empty() : find(key);
+        }
+    }
+
+    // only one of several retries racing for an abandoned claim updates the row
+    private boolean takeOver(MapSqlParameterSource params) {
+        return jdbcTemplate.update("UPDATE student_idempotency_key"
+                + " SET created_at = :createdAt, claimed_at = :createdAt"
+                + " WHERE idempotency_key = :key AND fingerprint = :fingerprint"
+                + " AND status IS NULL AND claimed_at < :abandonedBefore", params) == 1;
+    }
+
+    @Override
+    public void complete(String key, StudentIdempotencyRecord completed) {
+        jdbcTemplate.update("UPDATE student_idempotency_key"
+                        + " SET status = :status, location = :location, registration = :registration"
+                        + " WHERE idempotency_key = :key",
+                new MapSqlParameterSource()
+                        .addValue("key", key)
+                        .addValue("status", completed.status())
+                        .addValue("location", completed.location())
+                        .addValue("registration", toJson(completed.registration())));
+    }
+
+    @Override
+    public void remove(String key) {
+        jdbcTemplate.update("DELETE FROM student_idempotency_key WHERE idempotency_key = :key",
+                new MapSqlParameterSource("key", key));
+    }
+
+    private Optional<StudentIdempotencyRecord> find(String key) {
+        List<StudentIdempotencyRecord> records = jdbcTemplate.query(
+                "SELECT fingerprint, status, location, registration FROM student_idempotency_key"
+                        + " WHERE idempotency_key = :key",
+                new MapSqlParameterSource("key", key),
+                (rs, rowNum) -> new StudentIdempotencyRecord(
+                        rs.getString("fingerprint"),
+                        rs.getObject("status", Integer.class),
+                        rs.getString("location"),
+                        fromJson(rs.getString("registration"))));
+        // the owner may have removed the key between our insert and this read; retrying is safe
+        return records.isEmpty()
+                ? Optional.of(StudentIdempotencyRecord.inProgress(null))
+                : Optional.of(records.get(0));
+    }
+
+    private void purgeExpired(Instant now) {
+        long next = nextPurge.get();
+        if (now.toEpochMilli() < next || !nextPurge.compareAndSet(next, now.toEpochMilli() + PURGE_INTERVAL_MILLIS)) {
+            return;
+        }
+        jdbcTemplate.update("DELETE FROM student_idempotency_key WHERE created_at < :expiredBefore",
+                new MapSqlParameterSource("expiredBefore", Timestamp.from(now.minus(ttl))));
+    }
+
+    private String toJson(StudentRegistration registration) {
+        if (registration == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(registration);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot store registration " + registration.id(), e);
+        }
+    }
+
+    private StudentRegistration fromJson(String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, StudentRegistration.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot read stored registration", e);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.demo.student;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Shared between instances through the student_registration table, so a status
+// poll can land on any instance and survives a restart. Statuses older than
+// retention are purged at most once a minute.
+public class JdbcStudentRegistrationStore implements StudentRegistrationStore {
+
+    private static final long PURGE_INTERVAL_MILLIS = Duration.ofMinutes(1).toMillis();
+    private static final int MAX_MESSAGE_LENGTH = 2048;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final Duration retention;
+    private final AtomicLong nextPurge = new AtomicLong();
+
+    public JdbcStudentRegistrationStore(NamedParameterJdbcTemplate jdbcTemplate, Duration retention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.retention = retention;
+    }
+
+    @Override
+    public void add(StudentRegistration pending) {
+        Instant now = Instant.now();
+        purgeExpired(now);
+        jdbcTemplate.update("INSERT INTO student_registration (id, state, student_id, message, updated_at)"
+                + " VALUES (:id, :state, :studentId, :message, :updatedAt)", params(pending, now));
+    }
+
+    // one round trip for the whole batch the writer just wrote
+    @Override
+    public void update(List<StudentRegistration> registrations) {
+        Instant now = Instant.now();
+        jdbcTemplate.batchUpdate("UPDATE student_registration"
+                        + " SET state = :state, student_id = :studentId, message = :message, updated_at = :updatedAt"
+                        + " WHERE id = :id",
+                registrations.stream()
+                        .map(registration -> params(registration, now))
+                        .toArray(SqlParameterSource[]::new));
+    }
+
+    @Override
+    public Optional<StudentRegistration> find(UUID id) {
+        List<StudentRegistration> registrations = jdbcTemplate.query(
+                "SELECT id, state, student_id, message FROM student_registration"
+                        + " WHERE id = :id AND updated_at >= :expiredBefore",
+                new MapSqlParameterSource()
+                        .addValue("id", id)
+                        .addValue("expiredBefore", Timestamp.from(Instant.now().minus(retention))),
+                (rs, rowNum) -> new StudentRegistration(
+                        rs.getObject("id", UUID.class),
+                        StudentRegistration.State.valueOf(rs.getString("state")),
+                        rs.getObject("student_id", Long.class),
+                        rs.getString("message")));
+        return registrations.stream().findFirst();
+    }
+
+    @Override
+    public void remove(UUID id) {
+        jdbcTemplate.update("DELETE FROM student_registration WHERE id = :id",
+                new MapSqlParameterSource("id", id));
+    }
+
+    private static MapSqlParameterSource params(StudentRegistration registration, Instant now) {
+        String message = registration.message();
+        return new MapSqlParameterSource()
+                .addValue("id", registration.id())
+                .addValue("state", registration.state().name())
+                .addValue("studentId", registration.studentId())
+                .addValue("message", message == null || message.length() <= MAX_MESSAGE_LENGTH
+                        ? message
+                        : message.substring(0, MAX_MESSAGE_LENGTH))
+                .addValue("updatedAt", Timestamp.from(now));
+    }
+
+    private void purgeExpired(Instant now) {
+        long next = nextPurge.get();
+        if (now.toEpochMilli() < next || !nextPurge.compareAndSet(next, now.toEpochMilli() + PURGE_INTERVAL_MILLIS)) {
+            return;
+        }
+        jdbcTemplate.update("DELETE FROM student_registration WHERE updated_at < :expiredBefore",
+                new MapSqlParameterSource("expiredBefore", Timestamp.from(now.minus(retention))));
+    }
+}
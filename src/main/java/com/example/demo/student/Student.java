@@ -1,18 +1,37 @@
 package com.example.demo.student;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.id.OptimizableGenerator;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.springframework.dao.DataIntegrityViolationException;
 
 import java.time.LocalDate;
-import java.time.Period;
+import java.util.Locale;
 
 @Entity
-@Table
+@Table(indexes = {
+        @Index(name = Student.EMAIL_UNIQUE, columnList = "email", unique = true),
+        // search indexes, see StudentSearchQuery
+        @Index(name = "student_name_key_idx", columnList = "name_key, id"),
+        @Index(name = "student_email_domain_idx", columnList = "email_domain, id"),
+        @Index(name = "student_dob_idx", columnList = "dob, id")
+})
 public class Student {
+    static final String EMAIL_UNIQUE = "student_email_unique";
+
     @Id
-    @SequenceGenerator(
-            name = "student_s",
-            sequenceName = "student_sequence",
-            allocationSize = 1
+    @GenericGenerator(
+            name = "student_sequence",
+            type = StudentSequenceGenerator.class,
+            parameters = {
+                    @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "student_sequence"),
+                    @Parameter(name = OptimizableGenerator.INCREMENT_PARAM, value = "50"),
+                    @Parameter(name = OptimizableGenerator.OPT_PARAM, value = "pooled-lo")
+            }
     )
     @GeneratedValue(
             strategy = GenerationType.SEQUENCE,
@@ -23,6 +42,13 @@ public class Student {
     private String email;
     private LocalDate dob;
 
+    // lower-cased copies kept in step by the setters so search can use plain b-tree indexes
+    private String nameKey;
+    private String emailDomain;
+
+    @Version
+    private Long version;
+
     @Transient
     private Integer age;
 
@@ -37,6 +63,8 @@ public class Student {
         this.name = name;
         this.email = email;
         this.dob = dob;
+        this.nameKey = nameKeyOf(name);
+        this.emailDomain = emailDomainOf(email);
     }
 
     public Student(String name,
@@ -45,6 +73,8 @@ public class Student {
         this.name = name;
         this.email = email;
         this.dob = dob;
+        this.nameKey = nameKeyOf(name);
+        this.emailDomain = emailDomainOf(email);
     }
 
     public Long getId() {
@@ -61,6 +91,7 @@ public class Student {
 
     public void setName(String name) {
         this.name = name;
+        this.nameKey = nameKeyOf(name);
     }
 
     public String getEmail() {
@@ -69,6 +100,7 @@ public class Student {
 
     public void setEmail(String email) {
         this.email = email;
+        this.emailDomain = emailDomainOf(email);
     }
 
     public LocalDate getDob() {
@@ -79,14 +111,50 @@ public class Student {
         this.dob = dob;
     }
 
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public Long getVersion() {
+        return version;
+    }
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
     public Integer getAge() {
-        return Period.between(this.dob, LocalDate.now()).getYears();
+        if (age != null) {
+            return age;
+        }
+        return StudentAge.of(dob, LocalDate.now());
     }
 
     public void setAge(Integer age) {
         this.age = age;
     }
 
+    static String nameKeyOf(String name) {
+        return name == null ? null : name.toLowerCase(Locale.ROOT);
+    }
+
+    // only a clash on the email index means "already exists"; not null, length
+    // and other constraint violations are left to propagate
+    static boolean violatesUniqueEmail(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            // Hibernate extracts the name; plain JDBC only has the driver's message
+            String constraint = cause instanceof ConstraintViolationException violation
+                    ? violation.getConstraintName()
+                    : cause.getMessage();
+            if (constraint != null && constraint.toLowerCase(Locale.ROOT).contains(EMAIL_UNIQUE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static String emailDomainOf(String email) {
+        if (email == null) {
+            return null;
+        }
+        int at = email.lastIndexOf('@');
+        return at < 0 ? null : email.substring(at + 1).toLowerCase(Locale.ROOT);
+    }
+
     @Override
     public String toString() {
         return "Student{" +
@@ -0,0 +1,32 @@
+package com.example.demo.student;
+
+import java.time.LocalDate;
+
+/**
+ * Whole years between a date of birth and a reference date, equal to
+ * {@code Period.between(dob, referenceDate).getYears()} but without
+ * allocating a {@link java.time.Period} per call.
+ */
+public final class StudentAge {
+
+    private StudentAge() {
+    }
+
+    public static Integer of(LocalDate dob, LocalDate referenceDate) {
+        return dob == null ? null : yearsBetween(dob, referenceDate);
+    }
+
+    static int yearsBetween(LocalDate dob, LocalDate referenceDate) {
+        if (dob.isAfter(referenceDate)) {
+            return -yearsBetween(referenceDate, dob);
+        }
+
+        int years = referenceDate.getYear() - dob.getYear();
+        if (referenceDate.getMonthValue() < dob.getMonthValue()
+                || (referenceDate.getMonthValue() == dob.getMonthValue()
+                && referenceDate.getDayOfMonth() < dob.getDayOfMonth())) {
+            years--;
+        }
+        return years;
+    }
+}
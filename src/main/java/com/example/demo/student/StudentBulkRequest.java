@@ -0,0 +1,37 @@
+package com.example.demo.student;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Picks the students of a bulk delete or update, either by id or by filter.
+// newEmailDomain is only read by the bulk update.
+public record StudentBulkRequest(List<Long> ids,
+                                 Filter filter,
+                                 String newEmailDomain) {
+
+    public record Filter(String namePrefix,
+                         String emailDomain,
+                         LocalDate bornFrom,
+                         LocalDate bornTo) {
+
+        boolean isEmpty() {
+            return (namePrefix == null || namePrefix.isBlank())
+                    && (emailDomain == null || emailDomain.isBlank())
+                    && bornFrom == null
+                    && bornTo == null;
+        }
+
+        StudentSearchCriteria toCriteria() {
+            return new StudentSearchCriteria(
+                    namePrefix,
+                    emailDomain,
+                    bornFrom,
+                    bornTo,
+                    null,
+                    null,
+                    StudentSearchCriteria.Sort.ID,
+                    null,
+                    0);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.demo.student;
+
+import java.util.List;
+
+// skippedIds exist but were left as they are, e.g. a domain change for an
+// email without an @
+public record StudentBulkResult(int requested,
+                                int affected,
+                                List<Long> missingIds,
+                                List<Long> skippedIds) {
+}
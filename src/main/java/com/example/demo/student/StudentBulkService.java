@@ -0,0 +1,148 @@
+package com.example.demo.student;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+// Set-based deletes and updates for many students at once. Each request runs
+// in one transaction, chunked so every statement stays under the bind
+// parameter limits: one id lookup and one DELETE/UPDATE per chunk, plus a
+// lookup of the skipped ids in a chunk whose UPDATE left some rows alone.
+@Service
+public class StudentBulkService {
+
+    private final StudentRepository studentRepository;
+    private final StudentSearchRepository studentSearchRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+    private final int maxStudents;
+
+    @Autowired
+    public StudentBulkService(StudentRepository studentRepository,
+                              StudentSearchRepository studentSearchRepository,
+                              ApplicationEventPublisher eventPublisher,
+                              @Value("${student.bulk.chunk-size:1000}") int chunkSize,
+                              @Value("${student.bulk.max-students:100000}") int maxStudents) {
+        this.studentRepository = studentRepository;
+        this.studentSearchRepository = studentSearchRepository;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+        this.maxStudents = maxStudents;
+    }
+
+    @Caching(evict = {
+            @CacheEvict(cacheNames = StudentCacheConfig.STUDENTS, allEntries = true),
+            @CacheEvict(cacheNames = StudentCacheConfig.STUDENTS_BY_EMAIL, allEntries = true)
+    })
+    @Transactional
+    public StudentBulkResult deleteStudents(StudentBulkRequest request) {
+        return apply(select(request), StudentChangedEvent.Type.DELETED,
+                studentRepository::deleteStudentsByIdIn, chunk -> Set.of());
+    }
+
+    // moves every selected student to newEmailDomain, keeping the local part of
+    // the address; students whose email has no @ are reported as skipped
+    @Caching(evict = {
+            @CacheEvict(cacheNames = StudentCacheConfig.STUDENTS, allEntries = true),
+            @CacheEvict(cacheNames = StudentCacheConfig.STUDENTS_BY_EMAIL, allEntries = true)
+    })
+    @Transactional
+    public StudentBulkResult updateEmailDomain(StudentBulkRequest request) {
+        String domain = request.newEmailDomain();
+        if (domain == null || domain.isBlank() || domain.contains("@")
+                || domain.chars().anyMatch(Character::isWhitespace)) {
+            throw new IllegalArgumentException("newEmailDomain must be a bare domain such as example.com");
+        }
+        String emailDomain = Student.emailDomainOf("@" + domain);
+
+        List<Long> ids = select(request);
+        try {
+            return apply(ids, StudentChangedEvent.Type.UPDATED,
+                    chunk -> studentRepository.updateEmailDomainByIdIn(chunk, domain, emailDomain),
+                    studentRepository::findIdsWithoutEmailDomain);
+        } catch (DataIntegrityViolationException e) {
+            if (!Student.violatesUniqueEmail(e)) {
+                throw e;
+            }
+            // the whole request rolls back, not just the chunk that clashed
+            throw new IllegalArgumentException(
+                    "Moving these students to " + domain + " would give two of them the same email");
+        }
+    }
+
+    private List<Long> select(StudentBulkRequest request) {
+        boolean byIds = request.ids() != null && !request.ids().isEmpty();
+        boolean byFilter = request.filter() != null;
+        if (byIds == byFilter) {
+            throw new IllegalArgumentException("Select students either by ids or by filter");
+        }
+
+        if (byIds) {
+            if (request.ids().size() > maxStudents) {
+                throw new IllegalArgumentException("At most " + maxStudents + " ids per request");
+            }
+            if (request.ids().stream().anyMatch(Objects::isNull)) {
+                throw new IllegalArgumentException("ids must not contain null");
+            }
+            // a repeated id would otherwise be counted and reported twice
+            return new ArrayList<>(new LinkedHashSet<>(request.ids()));
+        }
+
+        if (request.filter().isEmpty()) {
+            throw new IllegalArgumentException("The filter needs at least one condition");
+        }
+        List<Long> ids = studentSearchRepository.findIds(request.filter().toCriteria(), maxStudents + 1);
+        if (ids.size() > maxStudents) {
+            throw new IllegalArgumentException("The filter matches more than " + maxStudents + " students");
+        }
+        return ids;
+    }
+
+    // skipped finds the existing ids the statement did not touch; it is only
+    // asked when a chunk's statement changed fewer rows than it was given
+    private StudentBulkResult apply(List<Long> ids,
+                                    StudentChangedEvent.Type type,
+                                    ToIntFunction<Collection<Long>> statement,
+                                    Function<Collection<Long>, Set<Long>> skipped) {
+        List<Long> changedIds = new ArrayList<>(ids.size());
+        List<Long> missingIds = new ArrayList<>();
+        List<Long> skippedIds = new ArrayList<>();
+        int affected = 0;
+
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+            Set<Long> existing = studentRepository.findExistingIds(chunk);
+            int changed = existing.isEmpty() ? 0 : statement.applyAsInt(existing);
+            Set<Long> unchanged = changed < existing.size() ? skipped.apply(existing) : Set.of();
+            for (Long id : chunk) {
+                if (!existing.contains(id)) {
+                    missingIds.add(id);
+                } else if (unchanged.contains(id)) {
+                    skippedIds.add(id);
+                } else {
+                    changedIds.add(id);
+                }
+            }
+            affected += changed;
+        }
+
+        if (!changedIds.isEmpty()) {
+            eventPublisher.publishEvent(new StudentChangedEvent(type, changedIds));
+        }
+        return new StudentBulkResult(ids.size(), affected, missingIds, skippedIds);
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.demo.student;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class StudentCacheConfig {
+
+    static final String STUDENTS = "students";
+    static final String STUDENTS_BY_EMAIL = "studentsByEmail";
+
+    @Bean
+    CacheManager cacheManager(
+            @Value("${student.cache.spec:maximumSize=10000,expireAfterWrite=10m,recordStats}") String spec) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(STUDENTS, STUDENTS_BY_EMAIL);
+        cacheManager.setCacheSpecification(spec);
+
+        // evictions issued inside a transaction only apply once it commits,
+        // so a concurrent read cannot re-cache the row we are about to change
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.demo.student;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+// Transactional outbox row, written in the same transaction as the change it
+// describes. The id doubles as the sequence number consumers resume from; it
+// is drawn per row rather than in blocks, so ids from different instances
+// interleave in the order the changes were written.
+@Entity
+@Table(indexes = @Index(name = "student_change_created_at_idx", columnList = "created_at"))
+public class StudentChange {
+    @Id
+    @SequenceGenerator(
+            name = "student_change_sequence",
+            sequenceName = "student_change_sequence",
+            allocationSize = 1
+    )
+    @GeneratedValue(
+            strategy = GenerationType.SEQUENCE,
+            generator = "student_change_sequence"
+    )
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    private StudentChangedEvent.Type type;
+
+    private Long studentId;
+
+    private Instant createdAt;
+
+    public StudentChange() {
+    }
+
+    public StudentChange(StudentChangedEvent.Type type,
+                         Long studentId,
+                         Instant createdAt) {
+        this.type = type;
+        this.studentId = studentId;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public StudentChangedEvent.Type getType() {
+        return type;
+    }
+
+    public Long getStudentId() {
+        return studentId;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return "StudentChange{" +
+                "id=" + id +
+                ", type=" + type +
+                ", studentId=" + studentId +
+                ", createdAt=" + createdAt +
+                '}';
+    }
+}
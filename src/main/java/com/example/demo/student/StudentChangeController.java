@@ -0,0 +1,31 @@
+package com.example.demo.student;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping(path = "api/v1/student/changes")
+public class StudentChangeController {
+    static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+
+    private final StudentChangeFeed studentChangeFeed;
+
+    @Autowired
+    public StudentChangeController(StudentChangeFeed studentChangeFeed) {
+        this.studentChangeFeed = studentChangeFeed;
+    }
+
+    // a reconnecting EventSource sends Last-Event-ID, which wins over ?since
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(
+            @RequestParam(required = false) Long since,
+            @RequestHeader(name = LAST_EVENT_ID_HEADER, required = false) Long lastEventId) {
+        return studentChangeFeed.subscribe(lastEventId != null ? lastEventId : since);
+    }
+}
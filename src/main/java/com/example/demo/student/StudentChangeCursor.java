@@ -0,0 +1,76 @@
+package com.example.demo.student;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+// A reader's position in the outbox. Ids are taken from the sequence when a
+// change is written but only become visible when its transaction commits, so
+// a reader may see 12 while 11 is still in flight; moving past 11 then would
+// lose it for good. The cursor only moves over contiguous ids and waits at a
+// gap. A gap still open after gapTimeout is a rolled back transaction (or one
+// far slower than any we expect) and is skipped, together with every other
+// gap that was already visible when the wait began.
+final class StudentChangeCursor {
+
+    private static final long NOT_WAITING = -1;
+
+    private final long gapTimeoutNanos;
+    private final LongSupplier clock;
+
+    private long position;
+    private long waitingSince = NOT_WAITING;
+    // the last id visible when the wait began
+    private long waitHorizon;
+    // gaps up to here are given up on
+    private long skipThrough;
+
+    StudentChangeCursor(long position, Duration gapTimeout) {
+        this(position, gapTimeout, System::nanoTime);
+    }
+
+    StudentChangeCursor(long position, Duration gapTimeout, LongSupplier clock) {
+        this.position = position;
+        this.skipThrough = position;
+        this.gapTimeoutNanos = gapTimeout.toNanos();
+        this.clock = clock;
+    }
+
+    long position() {
+        return position;
+    }
+
+    // changes are the rows after position(), in id order; returns the ones that
+    // can be handed on now and moves past them
+    List<StudentChange> advance(List<StudentChange> changes) {
+        List<StudentChange> ready = new ArrayList<>();
+        for (StudentChange change : changes) {
+            long id = change.getId();
+            if (id != position + 1 && id > skipThrough && !gapExpired(changes)) {
+                break;
+            }
+            if (id == position + 1) {
+                waitingSince = NOT_WAITING;
+            }
+            ready.add(change);
+            position = id;
+        }
+        return ready;
+    }
+
+    private boolean gapExpired(List<StudentChange> changes) {
+        long now = clock.getAsLong();
+        if (waitingSince == NOT_WAITING) {
+            waitingSince = now;
+            waitHorizon = changes.get(changes.size() - 1).getId();
+            return false;
+        }
+        if (now - waitingSince < gapTimeoutNanos) {
+            return false;
+        }
+        skipThrough = waitHorizon;
+        waitingSince = NOT_WAITING;
+        return true;
+    }
+}
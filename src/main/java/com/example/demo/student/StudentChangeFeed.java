@@ -0,0 +1,302 @@
+package com.example.demo.student;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Fans the outbox out to Server-Sent-Events subscribers. One scheduler thread
+// reads the rows after each subscriber's cursor, so a reconnecting client
+// resumes exactly where it left off. The cursor waits at ids whose
+// transactions have not committed yet, see StudentChangeCursor. A client
+// resuming from before the retention window would see the purged range as one
+// more gap and silently skip it, so it gets a reset event instead and carries
+// on from the latest change once it has reloaded its snapshot.
+//
+// Commits only ask for a pass; any number of them before it runs make one.
+// A pass reads each page once for all subscribers at the same position and
+// queues the events per subscriber, and sender threads write them out, so a
+// slow client only holds up itself. It is read for again once its queue has
+// room, and dropped when nothing reached it for a heartbeat interval; it then
+// reconnects with Last-Event-ID and picks up where it got to.
+@Component
+public class StudentChangeFeed implements SmartLifecycle {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StudentChangeFeed.class);
+
+    static final int BATCH_SIZE = 500;
+    static final String RESET_EVENT = "reset";
+
+    private final StudentChangeRepository studentChangeRepository;
+    private final Duration pollInterval;
+    private final Duration heartbeatInterval;
+    private final Duration emitterTimeout;
+    private final Duration retention;
+    private final Duration gapTimeout;
+    private final int maxPending;
+    private final Executor sender;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean passPending = new AtomicBoolean();
+
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public StudentChangeFeed(StudentChangeRepository studentChangeRepository,
+                             @Value("${student.changes.poll-interval:500ms}") Duration pollInterval,
+                             @Value("${student.changes.heartbeat-interval:15s}") Duration heartbeatInterval,
+                             @Value("${student.changes.emitter-timeout:30m}") Duration emitterTimeout,
+                             @Value("${student.changes.retention:7d}") Duration retention,
+                             @Value("${student.changes.gap-timeout:5s}") Duration gapTimeout,
+                             @Value("${student.changes.max-pending:1000}") int maxPending) {
+        this(studentChangeRepository, pollInterval, heartbeatInterval, emitterTimeout, retention, gapTimeout,
+                maxPending, Executors.newCachedThreadPool(runnable -> {
+                    Thread thread = new Thread(runnable, "student-change-sender");
+                    thread.setDaemon(true);
+                    return thread;
+                }));
+    }
+
+    StudentChangeFeed(StudentChangeRepository studentChangeRepository,
+                      Duration pollInterval,
+                      Duration heartbeatInterval,
+                      Duration emitterTimeout,
+                      Duration retention,
+                      Duration gapTimeout,
+                      int maxPending,
+                      Executor sender) {
+        this.studentChangeRepository = studentChangeRepository;
+        this.pollInterval = pollInterval;
+        this.heartbeatInterval = heartbeatInterval;
+        this.emitterTimeout = emitterTimeout;
+        this.retention = retention;
+        this.gapTimeout = gapTimeout;
+        // room for at least one page, or a subscriber could never be read for
+        this.maxPending = Math.max(maxPending, BATCH_SIZE);
+        this.sender = sender;
+    }
+
+    // without a starting sequence the subscriber only sees changes from now on
+    public SseEmitter subscribe(Long since) {
+        return subscribe(since, new SseEmitter(emitterTimeout.toMillis()));
+    }
+
+    SseEmitter subscribe(Long since, SseEmitter emitter) {
+        long cursor = since != null ? since : studentChangeRepository.findLatestId();
+        boolean purged = since != null && studentChangeRepository.findOldestId() > since + 1;
+        if (purged) {
+            cursor = studentChangeRepository.findLatestId();
+        }
+        Subscriber subscriber = new Subscriber(emitter, new StudentChangeCursor(cursor, gapTimeout), maxPending);
+        if (purged) {
+            subscriber.queue.add(SseEmitter.event()
+                    .id(Long.toString(cursor))
+                    .name(RESET_EVENT)
+                    .data(cursor));
+        }
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        send(subscriber);
+        wakeUp();
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStudentChanged(StudentChangedEvent event) {
+        wakeUp();
+    }
+
+    @Override
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "student-change-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::publish,
+                pollInterval.toMillis(), pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::purge, 1, 60, TimeUnit.MINUTES);
+    }
+
+    @Override
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        if (sender instanceof ExecutorService executor) {
+            executor.shutdownNow();
+        }
+        subscribers.forEach(subscriber -> subscriber.emitter().complete());
+        subscribers.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+
+    private void wakeUp() {
+        ScheduledExecutorService current = scheduler;
+        if (current == null || subscribers.isEmpty() || !passPending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            current.execute(this::publish);
+        } catch (RejectedExecutionException e) {
+            // stopping
+            passPending.set(false);
+        }
+    }
+
+    void publish() {
+        // commits after this point ask for another pass
+        passPending.set(false);
+        Map<Long, List<StudentChange>> pages = new HashMap<>();
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.queue.isEmpty() && now - subscriber.progressAt > heartbeatInterval.toNanos()) {
+                LOG.info("Dropping a student change subscriber stalled at {}", subscriber.cursor.position());
+                close(subscriber);
+                continue;
+            }
+            try {
+                queue(subscriber, pages);
+            } catch (RuntimeException e) {
+                LOG.warn("Failed to read student changes after {}", subscriber.cursor.position(), e);
+            }
+            send(subscriber);
+        }
+    }
+
+    private void queue(Subscriber subscriber, Map<Long, List<StudentChange>> pages) {
+        if (subscriber.queue.isEmpty()) {
+            // the stall clock starts with the first event it has to take
+            subscriber.progressAt = System.nanoTime();
+        }
+        List<StudentChange> ready = List.of();
+        while (subscriber.queue.remainingCapacity() >= BATCH_SIZE) {
+            ready = subscriber.cursor.advance(pages.computeIfAbsent(subscriber.cursor.position(),
+                    position -> studentChangeRepository.findChangesAfter(position, PageRequest.ofSize(BATCH_SIZE))));
+            for (StudentChange change : ready) {
+                subscriber.queue.add(SseEmitter.event()
+                        .id(change.getId().toString())
+                        .name(change.getType().name().toLowerCase(Locale.ROOT))
+                        .data(change, MediaType.APPLICATION_JSON));
+            }
+            if (ready.size() < BATCH_SIZE) {
+                break;
+            }
+        }
+
+        if (!ready.isEmpty()) {
+            subscriber.lastQueued = System.nanoTime();
+        } else if (subscriber.queue.isEmpty()
+                && System.nanoTime() - subscriber.lastQueued > heartbeatInterval.toNanos()) {
+            subscriber.queue.add(SseEmitter.event().comment("heartbeat"));
+            subscriber.lastQueued = System.nanoTime();
+        }
+    }
+
+    // at most one sender per subscriber, so its events go out in order
+    private void send(Subscriber subscriber) {
+        if (subscriber.queue.isEmpty() && !subscriber.closed) {
+            return;
+        }
+        if (!subscriber.sending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            sender.execute(() -> drain(subscriber));
+        } catch (RejectedExecutionException e) {
+            // stopping, which completes every emitter
+            subscriber.sending.set(false);
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            SseEmitter.SseEventBuilder event;
+            while (!subscriber.closed && (event = subscriber.queue.poll()) != null) {
+                subscriber.emitter().send(event);
+                subscriber.progressAt = System.nanoTime();
+            }
+            if (subscriber.closed) {
+                subscriber.emitter().complete();
+            }
+        } catch (IOException | IllegalStateException e) {
+            // client went away; the emitter callbacks drop it from the list
+            subscriber.closed = true;
+            subscribers.remove(subscriber);
+            subscriber.emitter().completeWithError(e);
+        } finally {
+            subscriber.sending.set(false);
+        }
+        if (!subscriber.closed && !subscriber.queue.isEmpty()) {
+            send(subscriber);
+        }
+    }
+
+    // completed by its sender, which may still be blocked writing to the client
+    private void close(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+        subscriber.closed = true;
+        subscriber.queue.clear();
+        send(subscriber);
+    }
+
+    private void purge() {
+        try {
+            studentChangeRepository.deleteChangesBefore(Instant.now().minus(retention));
+        } catch (RuntimeException e) {
+            LOG.warn("Failed to purge student changes", e);
+        }
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        // only touched by the scheduler thread after construction
+        private final StudentChangeCursor cursor;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> queue;
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private long lastQueued = System.nanoTime();
+        // the last send, or when the queue last filled up from empty
+        private volatile long progressAt = System.nanoTime();
+        private volatile boolean closed;
+
+        Subscriber(SseEmitter emitter, StudentChangeCursor cursor, int maxPending) {
+            this.emitter = emitter;
+            this.cursor = cursor;
+            this.queue = new ArrayBlockingQueue<>(maxPending);
+        }
+
+        SseEmitter emitter() {
+            return emitter;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.demo.student;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+@Component
+public class StudentChangeOutbox {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String insertSql;
+
+    @Autowired
+    public StudentChangeOutbox(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+
+        // ids come from the sequence one at a time (see StudentChange); drawn
+        // inside the insert, a bulk change still costs one batch rather than a
+        // nextval round trip per row
+        Dialect dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect();
+        this.insertSql = "INSERT INTO student_change (id, type, student_id, created_at) VALUES ("
+                + dialect.getSequenceSupport().getSelectSequenceNextValString("student_change_sequence")
+                + ", ?, ?, ?)";
+    }
+
+    // a plain listener runs inside the publisher's transaction, so the outbox
+    // rows commit or roll back together with the change itself
+    @EventListener
+    public void onStudentChanged(StudentChangedEvent event) {
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate(insertSql, event.studentIds().stream()
+                .map(studentId -> new Object[]{event.type().name(), studentId, now})
+                .toList());
+    }
+}
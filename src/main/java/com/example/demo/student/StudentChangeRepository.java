@@ -0,0 +1,30 @@
+package com.example.demo.student;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface StudentChangeRepository
+        extends JpaRepository<StudentChange, Long> {
+
+    @Query("SELECT c FROM StudentChange c WHERE c.id > ?1 ORDER BY c.id")
+    List<StudentChange> findChangesAfter(Long after, Pageable pageable);
+
+    @Query("SELECT coalesce(max(c.id), 0) FROM StudentChange c")
+    long findLatestId();
+
+    @Query("SELECT coalesce(min(c.id), 0) FROM StudentChange c")
+    long findOldestId();
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM StudentChange c WHERE c.createdAt < ?1")
+    int deleteChangesBefore(Instant cutoff);
+}
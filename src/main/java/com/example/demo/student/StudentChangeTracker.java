@@ -0,0 +1,28 @@
+package com.example.demo.student;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+// Validator for the student list. Every change writes an outbox row (see
+// StudentChangeOutbox), so the latest outbox id moves on with each one, and
+// since it lives in the database every instance hands out the same tag.
+@Component
+public class StudentChangeTracker {
+
+    private final StudentChangeRepository studentChangeRepository;
+
+    @Autowired
+    public StudentChangeTracker(StudentChangeRepository studentChangeRepository) {
+        this.studentChangeRepository = studentChangeRepository;
+    }
+
+    @Transactional(readOnly = true)
+    public String currentETag() {
+        return eTagOf(studentChangeRepository.findLatestId());
+    }
+
+    static String eTagOf(long changeId) {
+        return "\"" + changeId + "\"";
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.demo.student;
+
+import java.util.Collection;
+import java.util.List;
+
+public record StudentChangedEvent(Type type, Collection<Long> studentIds) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    static StudentChangedEvent created(Long studentId) {
+        return new StudentChangedEvent(Type.CREATED, List.of(studentId));
+    }
+
+    static StudentChangedEvent updated(Long studentId) {
+        return new StudentChangedEvent(Type.UPDATED, List.of(studentId));
+    }
+
+    static StudentChangedEvent deleted(Long studentId) {
+        return new StudentChangedEvent(Type.DELETED, List.of(studentId));
+    }
+}
@@ -1,35 +1,67 @@
 package com.example.demo.student;
 
-import org.springframework.boot.CommandLineRunner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationListener;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
 
 import static java.time.Month.*;
 
 @Configuration
+@ConditionalOnProperty(name = "student.seed.enabled", havingValue = "true", matchIfMissing = true)
 public class StudentConfig {
 
+    private static final Logger LOG = LoggerFactory.getLogger(StudentConfig.class);
+
+    // seeds once the app is ready and on the task executor, so it never delays startup
     @Bean
-    CommandLineRunner commandLineRunner(StudentRepository repository) {
-        return args -> {
-            Student gucci = new Student(
-                    "Gucci",
-                    "gucci.gang@gmail.com",
-                    LocalDate.of(2000, JANUARY, 5)
-            );
+    ApplicationListener<ApplicationReadyEvent> studentSeeder(
+            StudentRepository repository,
+            ApplicationEventPublisher eventPublisher,
+            @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) Executor executor) {
+        return event -> executor.execute(() -> seed(repository, eventPublisher));
+    }
 
-            Student bello = new Student(
-                    "Bello",
-                    "bello@gmail.com",
-                    LocalDate.of(2001, JANUARY, 5)
-            );
+    private static void seed(StudentRepository repository, ApplicationEventPublisher eventPublisher) {
+        Student gucci = new Student(
+                "Gucci",
+                "gucci.gang@gmail.com",
+                LocalDate.of(2000, JANUARY, 5)
+        );
+
+        Student bello = new Student(
+                "Bello",
+                "bello@gmail.com",
+                LocalDate.of(2001, JANUARY, 5)
+        );
 
-            repository.saveAll(
-                    List.of(gucci, bello)
+        // the schema outlives restarts now, so only add what is missing
+        try {
+            Set<String> existing = repository.findExistingEmails(List.of(gucci.getEmail(), bello.getEmail()));
+            List<Student> seeded = repository.saveAll(
+                    List.of(gucci, bello).stream()
+                            .filter(student -> !existing.contains(student.getEmail()))
+                            .toList()
             );
-        };
+            // like any other write, so the outbox and the index see the new rows
+            if (!seeded.isEmpty()) {
+                eventPublisher.publishEvent(new StudentChangedEvent(
+                        StudentChangedEvent.Type.CREATED,
+                        seeded.stream().map(Student::getId).toList()));
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("Failed to seed students", e);
+        }
     }
 }
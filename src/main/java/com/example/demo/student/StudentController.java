@@ -1,30 +1,199 @@
 package com.example.demo.student;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
-
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.UUID;
 
 @RestController
 @RequestMapping(path = "api/v1/student")
 public class StudentController {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final String DEFAULT_PAGE_SIZE = "100";
+    static final String MERGE_PATCH_JSON_VALUE = "application/merge-patch+json";
+
     private final StudentService studentService;
+    private final StudentImportService studentImportService;
+    private final StudentBulkService studentBulkService;
+    private final StudentChangeTracker studentChangeTracker;
+    private final StudentRegistrationQueue studentRegistrationQueue;
+    private final StudentIdempotency studentIdempotency;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public StudentController(StudentService studentService) {
+    public StudentController(StudentService studentService,
+                             StudentImportService studentImportService,
+                             StudentBulkService studentBulkService,
+                             StudentChangeTracker studentChangeTracker,
+                             StudentRegistrationQueue studentRegistrationQueue,
+                             StudentIdempotency studentIdempotency,
+                             ObjectMapper objectMapper) {
         this.studentService = studentService;
+        this.studentImportService = studentImportService;
+        this.studentBulkService = studentBulkService;
+        this.studentChangeTracker = studentChangeTracker;
+        this.studentRegistrationQueue = studentRegistrationQueue;
+        this.studentIdempotency = studentIdempotency;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping
-    public List<Student> getStudents() {
-        return studentService.getStudents();
+    public ResponseEntity<List<StudentView>> getStudents(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit,
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept,
+            WebRequest request) {
+        Representation representation = Representation.of(accept);
+        String unchanged = unchangedETag(representation, request);
+        if (unchanged != null) {
+            return representation.notModified(unchanged);
+        }
+
+        StudentPage page = studentService.getStudents(after, limit);
+
+        ResponseEntity.BodyBuilder response = representation.respond(
+                representation.tag(StudentChangeTracker.eTagOf(page.changeId())));
+        if (page.nextCursor() != null) {
+            nextPage(response, "after", page.nextCursor().toString(), limit);
+        }
+        return response.body(page.students());
+    }
+
+    @GetMapping(path = "search")
+    public ResponseEntity<List<StudentView>> searchStudents(
+            @RequestParam(required = false) String namePrefix,
+            @RequestParam(required = false) String emailDomain,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate bornFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate bornTo,
+            @RequestParam(required = false) Integer minAge,
+            @RequestParam(required = false) Integer maxAge,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit,
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept,
+            WebRequest request) {
+        Representation representation = Representation.of(accept);
+        String unchanged = unchangedETag(representation, request);
+        if (unchanged != null) {
+            return representation.notModified(unchanged);
+        }
+
+        StudentSearchPage page = studentService.searchStudents(new StudentSearchCriteria(
+                namePrefix,
+                emailDomain,
+                bornFrom,
+                bornTo,
+                minAge,
+                maxAge,
+                StudentSearchCriteria.Sort.from(sort),
+                cursor,
+                limit));
+
+        // a page from the in-memory index has no change id to be tagged with
+        ResponseEntity.BodyBuilder response = representation.respond(page.changeId() == null
+                ? null
+                : representation.tag(StudentChangeTracker.eTagOf(page.changeId())));
+        if (page.nextCursor() != null) {
+            nextPage(response, "cursor", page.nextCursor(), limit);
+        }
+        return response.body(page.students());
+    }
+
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamStudents(
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+        if (accepts(accept, MediaType.APPLICATION_NDJSON)) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .body(streamNdjson());
+        }
+
+        StreamingResponseBody body = outputStream -> {
+            try (SequenceWriter writer = objectMapper.writerFor(StudentView.class)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                    .writeValuesAsArray(outputStream)) {
+                studentService.streamStudents(student -> write(writer, student));
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    @GetMapping(path = "{studentId}")
+    public ResponseEntity<StudentView> getStudent(
+            @PathVariable("studentId") Long studentId,
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept,
+            WebRequest request) {
+        return versioned(studentService.getStudent(studentId), Representation.of(accept), request);
+    }
+
+    @GetMapping(params = "email")
+    public ResponseEntity<StudentView> getStudentByEmail(
+            @RequestParam String email,
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept,
+            WebRequest request) {
+        return versioned(studentService.getStudentByEmail(email), Representation.of(accept), request);
     }
 
     @PostMapping
-    public void registerNewStudent(@RequestBody Student student) {
-        studentService.addNewStudent(student);
+    public ResponseEntity<StudentRegistration> registerNewStudent(
+            @RequestHeader(name = StudentIdempotency.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @RequestBody Student student) {
+        if (idempotencyKey == null) {
+            return register(student);
+        }
+        return studentIdempotency.execute(idempotencyKey, student, () -> register(student));
+    }
+
+    @GetMapping(path = "registrations/{registrationId}")
+    public ResponseEntity<StudentRegistration> getRegistration(
+            @PathVariable("registrationId") UUID registrationId) {
+        return ResponseEntity.of(studentRegistrationQueue.find(registrationId));
+    }
+
+    @PostMapping(path = "import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public StudentImportReport importStudents(InputStream body) throws IOException {
+        return studentImportService.importJson(body);
+    }
+
+    @PostMapping(path = "import", consumes = StudentImportService.TEXT_CSV_VALUE)
+    public StudentImportReport importStudentsFromCsv(InputStream body) throws IOException {
+        return studentImportService.importCsv(body);
+    }
+
+    @PostMapping(path = "bulk-delete", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public StudentBulkResult deleteStudents(@RequestBody StudentBulkRequest request) {
+        return studentBulkService.deleteStudents(request);
+    }
+
+    @PostMapping(path = "bulk-update", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public StudentBulkResult updateStudents(@RequestBody StudentBulkRequest request) {
+        return studentBulkService.updateEmailDomain(request);
     }
 
     @DeleteMapping(path = "{studentId}")
@@ -42,4 +211,209 @@ public class StudentController {
 
     }
 
+    @PatchMapping(
+            path = "{studentId}",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MERGE_PATCH_JSON_VALUE})
+    public ResponseEntity<Void> patchStudent(
+            @PathVariable("studentId") Long studentId,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestBody StudentPatch patch) {
+        Long expectedVersion = versionOf(studentId, ifMatch);
+        studentService.patchStudent(studentId, expectedVersion, patch);
+
+        ResponseEntity.HeadersBuilder<?> response = ResponseEntity.noContent();
+        if (expectedVersion != null) {
+            response.eTag(Representation.of(accept).tag(eTagOf(expectedVersion + 1)));
+        }
+        return response.build();
+    }
+
+    private ResponseEntity<StudentRegistration> register(Student student) {
+        if (!studentRegistrationQueue.isEnabled()) {
+            studentService.addNewStudent(student);
+            return ResponseEntity.ok().build();
+        }
+
+        return studentRegistrationQueue.submit(student)
+                .map(registration -> ResponseEntity
+                        .accepted()
+                        .location(ServletUriComponentsBuilder.fromCurrentRequest()
+                                .path("/registrations/{registrationId}")
+                                .buildAndExpand(registration.id())
+                                .toUri())
+                        .body(registration))
+                .orElseGet(() -> ResponseEntity
+                        .status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .build());
+    }
+
+    // one student per line, so clients can parse rows as they arrive
+    private StreamingResponseBody streamNdjson() {
+        ObjectWriter studentWriter = objectMapper.writerFor(StudentView.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        return outputStream -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+                generator.setRootValueSeparator(null);
+                studentService.streamStudents(student -> writeLine(studentWriter, generator, student));
+            }
+        };
+    }
+
+    // Lets a revalidation skip the page query when the client's tag is still
+    // the latest. The tag a body goes out with is read together with the body
+    // (see StudentService.getStudents), since the two may come from different
+    // replicas. The check runs on a detached request so a miss leaves the
+    // response headers alone.
+    private String unchangedETag(Representation representation, WebRequest request) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) == null) {
+            return null;
+        }
+        String eTag = representation.tag(studentChangeTracker.currentETag());
+        HttpServletRequest servletRequest = ((NativeWebRequest) request).getNativeRequest(HttpServletRequest.class);
+        return new ServletWebRequest(servletRequest).checkNotModified(eTag) ? eTag : null;
+    }
+
+    // single students carry their row version as a strong ETag, usable in If-Match
+    private static ResponseEntity<StudentView> versioned(StudentView student,
+                                                         Representation representation,
+                                                         WebRequest request) {
+        String eTag = representation.tag(eTagOf(student.version()));
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return representation.respond(eTag).body(student);
+    }
+
+    private static String eTagOf(long version) {
+        return "\"" + version + "\"";
+    }
+
+    // any representation's tag names the same version, so a Smile or CBOR
+    // client can send back the tag it was given
+    private static Long versionOf(Long studentId, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String value = ifMatch.trim();
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        value = value.replace("\"", "");
+        for (Representation representation : Representation.values()) {
+            if (!representation.suffix.isEmpty() && value.endsWith(representation.suffix)) {
+                value = value.substring(0, value.length() - representation.suffix.length());
+                break;
+            }
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            // an ETag we never issued cannot match the current version
+            throw new StudentVersionConflictException(studentId);
+        }
+    }
+
+    private static void nextPage(ResponseEntity.BodyBuilder response,
+                                 String cursorParam,
+                                 String cursor,
+                                 int limit) {
+        String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam(cursorParam, cursor)
+                .replaceQueryParam("limit", limit)
+                .toUriString();
+        response.header(NEXT_CURSOR_HEADER, cursor)
+                .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+    }
+
+    private static boolean accepts(String accept, MediaType mediaType) {
+        if (accept == null) {
+            return false;
+        }
+        try {
+            return MediaType.parseMediaTypes(accept).stream()
+                    .anyMatch(type -> type.equalsTypeAndSubtype(mediaType));
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+
+    // The same version written as JSON, Smile or CBOR is a different sequence
+    // of bytes, so each representation gets its own strong tag. The response
+    // is pinned to the representation the tag was made for.
+    private enum Representation {
+        JSON(MediaType.APPLICATION_JSON, ""),
+        SMILE(MediaType.parseMediaType("application/x-jackson-smile"), ".smile"),
+        CBOR(MediaType.APPLICATION_CBOR, ".cbor");
+
+        private final MediaType mediaType;
+        private final String suffix;
+
+        Representation(MediaType mediaType, String suffix) {
+            this.mediaType = mediaType;
+            this.suffix = suffix;
+        }
+
+        // the first of ours the client accepts, weighing the Accept header the
+        // way content negotiation does; JSON when it accepts none of them
+        static Representation of(String accept) {
+            if (accept == null || accept.isBlank()) {
+                return JSON;
+            }
+            List<MediaType> acceptable;
+            try {
+                acceptable = MediaType.parseMediaTypes(accept);
+            } catch (InvalidMediaTypeException e) {
+                return JSON;
+            }
+            MimeTypeUtils.sortBySpecificity(acceptable);
+            for (MediaType type : acceptable) {
+                for (Representation representation : values()) {
+                    if (type.isCompatibleWith(representation.mediaType)) {
+                        return representation;
+                    }
+                }
+            }
+            return JSON;
+        }
+
+        String tag(String eTag) {
+            return eTag.substring(0, eTag.length() - 1) + suffix + "\"";
+        }
+
+        ResponseEntity.BodyBuilder respond(String eTag) {
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .contentType(mediaType)
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT);
+            return eTag == null ? response : response.eTag(eTag);
+        }
+
+        <T> ResponseEntity<T> notModified(String eTag) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(eTag)
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .build();
+        }
+    }
+
+    private static void writeLine(ObjectWriter writer, JsonGenerator generator, Object value) {
+        try {
+            writer.writeValue(generator, value);
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void write(SequenceWriter writer, Object value) {
+        try {
+            writer.write(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
 }
@@ -0,0 +1,198 @@
+package com.example.demo.student;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+// Bulk-loads synthetic students when the data-generator profile is active.
+// The same seed and count always produce the same rows, and a rerun carries on
+// after the batches an earlier run committed. It runs before the web server
+// and the student index start, so both see the whole data set.
+@Component
+@Profile("data-generator")
+public class StudentDataGenerator implements SmartLifecycle {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StudentDataGenerator.class);
+
+    static final List<String> FIRST_NAMES = List.of(
+            "Ada", "Alan", "Amara", "Ben", "Bello", "Carmen", "Chen", "Dara", "Diego", "Elif",
+            "Emma", "Farah", "Finn", "Grace", "Gucci", "Hana", "Ivan", "Jamal", "Juan", "Kai",
+            "Lena", "Luca", "Maya", "Mateo", "Nia", "Noah", "Olga", "Omar", "Priya", "Quinn",
+            "Rosa", "Sami", "Sofia", "Tariq", "Uma", "Victor", "Wen", "Yara", "Yusuf", "Zoe");
+    static final List<String> LAST_NAMES = List.of(
+            "Abara", "Bauer", "Costa", "Dubois", "Eriksen", "Fischer", "Garcia", "Haddad", "Ito", "Jensen",
+            "Kowalski", "Lopez", "Moreau", "Nakamura", "Okafor", "Petrov", "Quispe", "Rossi", "Silva", "Tanaka",
+            "Usman", "Varga", "Wagner", "Xu", "Yilmaz", "Zhang");
+    static final List<String> DOMAINS = IntStream.rangeClosed(2000, 2024)
+            .mapToObj(year -> "class" + year + ".example.edu")
+            .toList();
+
+    private static final LocalDate EARLIEST_DOB = LocalDate.of(1960, 1, 1);
+    private static final int DOB_DAYS = (int) ChronoUnit.DAYS.between(EARLIEST_DOB, LocalDate.of(2008, 12, 31));
+    // first.last.<row index>@domain, see row()
+    private static final Pattern GENERATED_EMAIL = Pattern.compile("[a-z]+\\.[a-z]+\\.(\\d{1,9})@.*");
+    private static final int RESUME_PAGE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SessionFactoryImplementor sessionFactory;
+    private final IdentifierGenerator idGenerator;
+    private final int count;
+    private final long seed;
+    private final int batchSize;
+
+    private volatile boolean running;
+
+    @Autowired
+    public StudentDataGenerator(JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                EntityManagerFactory entityManagerFactory,
+                                ApplicationEventPublisher eventPublisher,
+                                @Value("${student.generator.count:1000000}") int count,
+                                @Value("${student.generator.seed:42}") long seed,
+                                @Value("${student.generator.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.count = count;
+        this.seed = seed;
+        this.batchSize = batchSize;
+
+        // ids come from Student's own generator, so they are handed out a block
+        // per sequence call like every JPA insert and never collide with them
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.idGenerator = (IdentifierGenerator) sessionFactory.getMappingMetamodel()
+                .getEntityDescriptor(Student.class)
+                .getGenerator();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        generate();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // ahead of the index and the web server, which both start in later phases
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    void generate() {
+        int existing = resumeFrom();
+        if (existing >= count) {
+            LOG.info("Generated students already present up to row {}", existing);
+            return;
+        }
+
+        long started = System.nanoTime();
+        Random random = new Random(seed);
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            for (int i = 0; i < count; i++) {
+                // drawn for every row, so a resumed run continues the same sequence
+                Object[] row = row(i, random);
+                if (i < existing) {
+                    continue;
+                }
+                row[0] = idGenerator.generate((SharedSessionContractImplementor) session, null);
+                batch.add(row);
+                if (batch.size() == batchSize || i == count - 1) {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        jdbcTemplate.batchUpdate(
+                                "INSERT INTO student (id, name, name_key, email, email_domain, dob, version)"
+                                        + " VALUES (?, ?, ?, ?, ?, ?, 0)",
+                                batch);
+                        // like any other write, so the outbox, the list ETag and
+                        // the change feed see the new rows
+                        eventPublisher.publishEvent(new StudentChangedEvent(
+                                StudentChangedEvent.Type.CREATED,
+                                batch.stream().map(generated -> (Long) generated[0]).toList()));
+                    });
+                    batch.clear();
+                    if ((i + 1) % 100_000 < batchSize) {
+                        LOG.info("Generated {} of {} students", i + 1, count);
+                    }
+                }
+            }
+        }
+
+        long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - started));
+        LOG.info("Generated {} students in {} s ({} rows/s)", count - existing, seconds, (count - existing) / seconds);
+    }
+
+    // the row after the last one an earlier run committed. Batches commit in
+    // order and draw ascending ids, so that is the newest generated email; a
+    // count would be thrown off by deleted students and by other students in
+    // the generated domains, and regenerate rows that are still there.
+    private int resumeFrom() {
+        String sql = "SELECT id, email FROM student WHERE email_domain IN ("
+                + String.join(",", Collections.nCopies(DOMAINS.size(), "?")) + ")"
+                + " AND id < ? ORDER BY id DESC FETCH FIRST " + RESUME_PAGE + " ROWS ONLY";
+        List<Object> params = new ArrayList<>(DOMAINS);
+        params.add(Long.MAX_VALUE);
+        while (true) {
+            List<Object[]> page = jdbcTemplate.query(sql,
+                    (rs, rowNum) -> new Object[]{rs.getLong("id"), rs.getString("email")},
+                    params.toArray());
+            for (Object[] student : page) {
+                Matcher generated = GENERATED_EMAIL.matcher((String) student[1]);
+                if (generated.matches()) {
+                    return Integer.parseInt(generated.group(1)) + 1;
+                }
+            }
+            if (page.size() < RESUME_PAGE) {
+                return 0;
+            }
+            params.set(DOMAINS.size(), page.get(page.size() - 1)[0]);
+        }
+    }
+
+    private static Object[] row(int i, Random random) {
+        String first = FIRST_NAMES.get(random.nextInt(FIRST_NAMES.size()));
+        String last = LAST_NAMES.get(random.nextInt(LAST_NAMES.size()));
+        String domain = DOMAINS.get(random.nextInt(DOMAINS.size()));
+        LocalDate dob = EARLIEST_DOB.plusDays(random.nextInt(DOB_DAYS));
+
+        String name = first + " " + last;
+        String email = first.toLowerCase(Locale.ROOT) + "." + last.toLowerCase(Locale.ROOT) + "." + i + "@" + domain;
+        // the id is filled in once the row is known to be missing
+        return new Object[]{null, name, Student.nameKeyOf(name), email, domain, dob};
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.demo.student;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+// Runs a registration at most once per Idempotency-Key. A retry gets the stored
+// response back, a retry racing the original gets 409 until it has finished,
+// and a failed attempt frees the key so the client can try again.
+@Component
+public class StudentIdempotency {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    static final int MAX_KEY_LENGTH = 255;
+
+    private final StudentIdempotencyStore store;
+
+    @Autowired
+    public StudentIdempotency(StudentIdempotencyStore store) {
+        this.store = store;
+    }
+
+    public ResponseEntity<StudentRegistration> execute(String key,
+                                                       Student student,
+                                                       Supplier<ResponseEntity<StudentRegistration>> registration) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(
+                    "Idempotency key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        String fingerprint = fingerprintOf(student);
+
+        Optional<StudentIdempotencyRecord> existing = store.putIfAbsent(
+                key, StudentIdempotencyRecord.inProgress(fingerprint));
+        if (existing.isPresent()) {
+            return replay(key, fingerprint, existing.get());
+        }
+
+        ResponseEntity<StudentRegistration> response;
+        try {
+            response = registration.get();
+        } catch (RuntimeException e) {
+            store.remove(key);
+            throw e;
+        }
+
+        // only outcomes that changed something are worth replaying; a full queue is worth retrying
+        if (response.getStatusCode().is2xxSuccessful()) {
+            URI location = response.getHeaders().getLocation();
+            store.complete(key, new StudentIdempotencyRecord(
+                    fingerprint,
+                    response.getStatusCode().value(),
+                    location == null ? null : location.toString(),
+                    response.getBody()));
+        } else {
+            store.remove(key);
+        }
+        return response;
+    }
+
+    private static ResponseEntity<StudentRegistration> replay(String key,
+                                                              String fingerprint,
+                                                              StudentIdempotencyRecord stored) {
+        if (stored.fingerprint() != null && !stored.fingerprint().equals(fingerprint)) {
+            throw new StudentIdempotencyKeyReusedException(key);
+        }
+        if (!stored.isComplete()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(stored.status())
+                .header(REPLAYED_HEADER, "true");
+        if (stored.location() != null) {
+            response.location(URI.create(stored.location()));
+        }
+        return stored.registration() == null ? response.build() : response.body(stored.registration());
+    }
+
+    private static String fingerprintOf(Student student) {
+        return student.getName() + "|" + student.getEmail() + "|" + student.getDob();
+    }
+}
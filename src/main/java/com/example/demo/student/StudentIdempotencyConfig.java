@@ -0,0 +1,32 @@
+package com.example.demo.student;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.time.Duration;
+
+@Configuration
+public class StudentIdempotencyConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "student.idempotency.store", havingValue = "memory", matchIfMissing = true)
+    StudentIdempotencyStore inMemoryStudentIdempotencyStore(
+            @Value("${student.idempotency.max-keys:100000}") long maxKeys,
+            @Value("${student.idempotency.ttl:24h}") Duration ttl) {
+        return new InMemoryStudentIdempotencyStore(maxKeys, ttl);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "student.idempotency.store", havingValue = "jdbc")
+    StudentIdempotencyStore jdbcStudentIdempotencyStore(
+            NamedParameterJdbcTemplate jdbcTemplate,
+            ObjectMapper objectMapper,
+            @Value("${student.idempotency.ttl:24h}") Duration ttl,
+            @Value("${student.idempotency.claim-timeout:1m}") Duration claimTimeout) {
+        return new JdbcStudentIdempotencyStore(jdbcTemplate, objectMapper, ttl, claimTimeout);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.demo.student;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+public class StudentIdempotencyKeyReusedException extends RuntimeException {
+
+    public StudentIdempotencyKeyReusedException(String key) {
+        super("Idempotency key " + key + " was already used for a different request");
+    }
+}
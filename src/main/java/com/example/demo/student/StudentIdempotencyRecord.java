@@ -0,0 +1,17 @@
+package com.example.demo.student;
+
+// What a POST with an Idempotency-Key produced. A record without a status is
+// still being executed by the request that claimed the key.
+public record StudentIdempotencyRecord(String fingerprint,
+                                       Integer status,
+                                       String location,
+                                       StudentRegistration registration) {
+
+    static StudentIdempotencyRecord inProgress(String fingerprint) {
+        return new StudentIdempotencyRecord(fingerprint, null, null, null);
+    }
+
+    boolean isComplete() {
+        return status != null;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.demo.student;
+
+import java.util.Optional;
+
+public interface StudentIdempotencyStore {
+
+    // atomically claims the key; empty when the caller now owns it, otherwise what is stored
+    Optional<StudentIdempotencyRecord> putIfAbsent(String key, StudentIdempotencyRecord inProgress);
+
+    void complete(String key, StudentIdempotencyRecord completed);
+
+    void remove(String key);
+}
@@ -0,0 +1,19 @@
+package com.example.demo.student;
+
+import java.util.Comparator;
+import java.util.List;
+
+public record StudentImportReport(int imported,
+                                  int rejected,
+                                  List<StudentImportResult> rows) {
+
+    static StudentImportReport of(List<StudentImportResult> rows) {
+        List<StudentImportResult> sorted = rows.stream()
+                .sorted(Comparator.comparingInt(StudentImportResult::row))
+                .toList();
+        int imported = (int) sorted.stream()
+                .filter(row -> row.status() == StudentImportResult.Status.IMPORTED)
+                .count();
+        return new StudentImportReport(imported, sorted.size() - imported, sorted);
+    }
+}
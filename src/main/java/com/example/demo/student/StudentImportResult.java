@@ -0,0 +1,26 @@
+package com.example.demo.student;
+
+public record StudentImportResult(int row,
+                                  String email,
+                                  Status status,
+                                  Long id,
+                                  String message) {
+
+    public enum Status {
+        IMPORTED,
+        DUPLICATE,
+        INVALID
+    }
+
+    static StudentImportResult imported(int row, Student student) {
+        return new StudentImportResult(row, student.getEmail(), Status.IMPORTED, student.getId(), null);
+    }
+
+    static StudentImportResult duplicate(int row, String email) {
+        return new StudentImportResult(row, email, Status.DUPLICATE, null, "Student already exists");
+    }
+
+    static StudentImportResult invalid(int row, String email, String message) {
+        return new StudentImportResult(row, email, Status.INVALID, null, message);
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.demo.student;
+
+import com.fasterxml.jackson.databind.DatabindException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+public class StudentImportService {
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    static final int CHUNK_SIZE = 1000;
+    static final int MAX_CHUNK_ATTEMPTS = 5;
+
+    private final StudentRepository studentRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader jsonReader;
+    private final ObjectReader csvReader;
+
+    @Autowired
+    public StudentImportService(StudentRepository studentRepository,
+                                ApplicationEventPublisher eventPublisher,
+                                PlatformTransactionManager transactionManager,
+                                ObjectMapper objectMapper) {
+        this.studentRepository = studentRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jsonReader = objectMapper.readerFor(Student.class);
+        this.csvReader = CsvMapper.builder()
+                .addModule(new JavaTimeModule())
+                .build()
+                .readerFor(Student.class)
+                .with(CsvSchema.emptySchema().withHeader());
+    }
+
+    public StudentImportReport importJson(InputStream body) throws IOException {
+        try (MappingIterator<Student> students = jsonReader.readValues(body)) {
+            return importStudents(students);
+        }
+    }
+
+    public StudentImportReport importCsv(InputStream body) throws IOException {
+        try (MappingIterator<Student> students = csvReader.readValues(body)) {
+            return importStudents(students);
+        }
+    }
+
+    private StudentImportReport importStudents(MappingIterator<Student> students) throws IOException {
+        List<StudentImportResult> results = new ArrayList<>();
+        List<ImportRow> chunk = new ArrayList<>(CHUNK_SIZE);
+        int row = 0;
+
+        while (students.hasNextValue()) {
+            row++;
+            try {
+                chunk.add(new ImportRow(row, students.nextValue()));
+            } catch (DatabindException e) {
+                // the iterator skips the rest of a malformed value, so keep going
+                results.add(StudentImportResult.invalid(row, null, e.getOriginalMessage()));
+            }
+
+            if (chunk.size() == CHUNK_SIZE) {
+                results.addAll(importChunk(chunk));
+                chunk.clear();
+            }
+        }
+
+        if (!chunk.isEmpty()) {
+            results.addAll(importChunk(chunk));
+        }
+
+        return StudentImportReport.of(results);
+    }
+
+    // the email check and the insert are not atomic, so a student registered in
+    // between fails the whole chunk; it is rolled back and checked again, and
+    // that row comes back as a duplicate the next time round
+    List<StudentImportResult> importChunk(List<ImportRow> chunk) {
+        List<ImportRow> rows = chunk;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return insertChunk(rows);
+            } catch (DataIntegrityViolationException e) {
+                if (!Student.violatesUniqueEmail(e) || attempt == MAX_CHUNK_ATTEMPTS) {
+                    throw e;
+                }
+                rows = rows.stream().map(ImportRow::copy).toList();
+            }
+        }
+    }
+
+    private List<StudentImportResult> insertChunk(List<ImportRow> chunk) {
+        return transactionTemplate.execute(status -> {
+            Set<String> emails = chunk.stream()
+                    .map(row -> row.student().getEmail())
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet());
+            Set<String> taken = emails.isEmpty()
+                    ? new HashSet<>()
+                    : new HashSet<>(studentRepository.findExistingEmails(emails));
+
+            List<StudentImportResult> results = new ArrayList<>(chunk.size());
+            List<ImportRow> accepted = new ArrayList<>(chunk.size());
+            for (ImportRow row : chunk) {
+                Student student = row.student();
+                String problem = validate(student);
+                if (problem != null) {
+                    results.add(StudentImportResult.invalid(row.row(), student.getEmail(), problem));
+                } else if (!taken.add(student.getEmail())) {
+                    results.add(StudentImportResult.duplicate(row.row(), student.getEmail()));
+                } else {
+                    accepted.add(row);
+                }
+            }
+
+            studentRepository.saveAll(accepted.stream()
+                    .map(ImportRow::student)
+                    .toList());
+            // a clash surfaces here rather than from the commit
+            studentRepository.flush();
+            accepted.forEach(row -> results.add(
+                    StudentImportResult.imported(row.row(), row.student())));
+
+            if (!accepted.isEmpty()) {
+                eventPublisher.publishEvent(new StudentChangedEvent(
+                        StudentChangedEvent.Type.CREATED,
+                        accepted.stream().map(row -> row.student().getId()).toList()));
+            }
+
+            return results;
+        });
+    }
+
+    static String validate(Student student) {
+        if (student.getName() == null || student.getName().isBlank()) {
+            return "name is required";
+        }
+        if (student.getEmail() == null || student.getEmail().isBlank()) {
+            return "email is required";
+        }
+        if (student.getDob() == null) {
+            return "dob is required";
+        }
+        return null;
+    }
+
+    record ImportRow(int row, Student student) {
+
+        // a rolled back persist leaves id and version set, so a retry needs a fresh entity
+        ImportRow copy() {
+            return new ImportRow(row, new Student(student.getName(), student.getEmail(), student.getDob()));
+        }
+    }
+}
@@ -0,0 +1,504 @@
+package com.example.demo.student;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+// Hot-standby copy of the student table that answers id, email and name-prefix
+// lookups without touching the database, when student.index.enabled=true.
+// It is loaded in the background at startup and kept current from two sources:
+// a StudentChangedEvent drops this instance's own changes at once, so readers
+// fall back to the database, and the refresher thread tails the outbox for
+// changes committed by any instance. Either way the single refresher thread
+// reads the changed students back from the primary.
+@Component
+public class StudentIndex implements SmartLifecycle {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StudentIndex.class);
+
+    static final int BATCH_SIZE = 1000;
+
+    // approximate shallow sizes with compressed oops
+    private static final long ENTRY_BYTES = 48;
+    private static final long TREE_NODE_BYTES = 40;
+    private static final long HASH_NODE_BYTES = 32;
+
+    private final StudentRepository studentRepository;
+    private final StudentChangeRepository studentChangeRepository;
+    private final TransactionTemplate replicaTransaction;
+    private final TransactionTemplate primaryTransaction;
+    private final Executor refresher;
+    private final boolean enabled;
+    private final Duration pollInterval;
+    private final Duration gapTimeout;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongObjectHashMap<StudentIndexEntry> byId;
+    private final Map<String, StudentIndexEntry> byEmail;
+    private final NavigableSet<StudentIndexEntry> byName = new TreeSet<>(StudentIndexEntry.BY_NAME);
+    // id -> sequence of its latest change, so a refresh that read the row earlier cannot put it back
+    private final Map<Long, Long> changed = new HashMap<>();
+    private final Cache<Long, Boolean> deleted = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofMinutes(10))
+            .build();
+    private final AtomicInteger pendingRefreshes = new AtomicInteger();
+    private long sequence;
+    private long stringBytes;
+    // where the outbox tail continues, set by each load; only touched by the refresher thread
+    private StudentChangeCursor tail;
+
+    private volatile boolean ready;
+    private volatile boolean running;
+
+    @Autowired
+    public StudentIndex(StudentRepository studentRepository,
+                        StudentChangeRepository studentChangeRepository,
+                        PlatformTransactionManager transactionManager,
+                        MeterRegistry meterRegistry,
+                        @Value("${student.index.enabled:false}") boolean enabled,
+                        @Value("${student.index.expected-size:100000}") int expectedSize,
+                        @Value("${student.changes.poll-interval:500ms}") Duration pollInterval,
+                        @Value("${student.changes.gap-timeout:5s}") Duration gapTimeout) {
+        this(studentRepository, studentChangeRepository, transactionManager, meterRegistry,
+                enabled, expectedSize, pollInterval, gapTimeout,
+                Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("student-index").daemon().factory()));
+    }
+
+    // the outbox is only tailed when the refresher can schedule; tests call poll() themselves
+    StudentIndex(StudentRepository studentRepository,
+                 StudentChangeRepository studentChangeRepository,
+                 PlatformTransactionManager transactionManager,
+                 MeterRegistry meterRegistry,
+                 boolean enabled,
+                 int expectedSize,
+                 Duration pollInterval,
+                 Duration gapTimeout,
+                 Executor refresher) {
+        this.studentRepository = studentRepository;
+        this.studentChangeRepository = studentChangeRepository;
+        this.replicaTransaction = new TransactionTemplate(transactionManager);
+        this.replicaTransaction.setReadOnly(true);
+        // read-write, so the replica router sends it to the primary that already has the commit
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+        this.refresher = refresher;
+        this.enabled = enabled;
+        this.pollInterval = pollInterval;
+        this.gapTimeout = gapTimeout;
+        this.byId = new LongObjectHashMap<>(enabled ? expectedSize : 0);
+        this.byEmail = new HashMap<>(enabled ? (int) (expectedSize / 0.75f) + 1 : 16);
+
+        Gauge.builder("student.index.size", this, StudentIndex::size)
+                .description("Students held by the in-memory index")
+                .register(meterRegistry);
+        Gauge.builder("student.index.memory", this, StudentIndex::estimatedBytes)
+                .description("Estimated heap held by the in-memory index")
+                .baseUnit(BaseUnits.BYTES)
+                .register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // empty also means "not in the index yet", so callers fall back to the database
+    public Optional<StudentView> findById(long studentId) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        StudentIndexEntry entry;
+        lock.readLock().lock();
+        try {
+            entry = byId.get(studentId);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return entry == null ? Optional.empty() : Optional.of(entry.toView(LocalDate.now()));
+    }
+
+    public Optional<StudentView> findByEmail(String email) {
+        if (!ready || email == null) {
+            return Optional.empty();
+        }
+        StudentIndexEntry entry;
+        lock.readLock().lock();
+        try {
+            entry = byEmail.get(email);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return entry == null ? Optional.empty() : Optional.of(entry.toView(LocalDate.now()));
+    }
+
+    // only a bare name prefix sorted by name is answered here, and only while no
+    // refresh is outstanding; anything else is empty and goes to the database
+    public Optional<StudentSearchPage> search(StudentSearchCriteria criteria, int limit) {
+        if (!ready || pendingRefreshes.get() > 0 || !answerable(criteria)) {
+            return Optional.empty();
+        }
+
+        String prefix = Student.nameKeyOf(criteria.namePrefix());
+        StudentIndexEntry from = StudentIndexEntry.nameProbe(prefix, Long.MIN_VALUE);
+        boolean inclusive = true;
+        if (criteria.cursor() != null) {
+            StudentSearchQuery.Cursor cursor = StudentSearchQuery.decodeCursor(criteria.cursor());
+            StudentIndexEntry after = StudentIndexEntry.nameProbe(cursor.key(), cursor.id());
+            if (StudentIndexEntry.BY_NAME.compare(after, from) >= 0) {
+                from = after;
+                inclusive = false;
+            }
+        }
+
+        List<StudentIndexEntry> matches = new ArrayList<>(Math.min(limit, 128));
+        lock.readLock().lock();
+        try {
+            for (StudentIndexEntry entry : byName.tailSet(from, inclusive)) {
+                if (matches.size() == limit || !entry.nameKey().startsWith(prefix)) {
+                    break;
+                }
+                matches.add(entry);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        LocalDate today = LocalDate.now();
+        List<StudentView> students = matches.stream().map(entry -> entry.toView(today)).toList();
+        StudentIndexEntry last = matches.isEmpty() ? null : matches.get(matches.size() - 1);
+        String nextCursor = matches.size() == limit
+                ? StudentSearchQuery.encodeCursor(last.nameKey(), last.id())
+                : null;
+        return Optional.of(new StudentSearchPage(students, nextCursor, null));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStudentChanged(StudentChangedEvent event) {
+        // before start(), e.g. while the data generator runs, the load that
+        // start() begins with reads these rows anyway
+        if (!enabled || !running) {
+            return;
+        }
+
+        long changedAt = invalidate(event);
+        if (event.type() != StudentChangedEvent.Type.DELETED) {
+            List<Long> studentIds = List.copyOf(event.studentIds());
+            pendingRefreshes.incrementAndGet();
+            try {
+                refresher.execute(() -> {
+                    try {
+                        refresh(studentIds, changedAt);
+                    } finally {
+                        pendingRefreshes.decrementAndGet();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // shutting down; the dropped entries stay on the database path
+                pendingRefreshes.decrementAndGet();
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        refresher.execute(() -> load(replicaTransaction));
+        if (refresher instanceof ScheduledExecutorService scheduler) {
+            scheduler.scheduleWithFixedDelay(this::poll,
+                    pollInterval.toMillis(), pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (refresher instanceof ExecutorService executor) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // rough, assuming compressed oops and Latin-1 strings
+    public long estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            int students = byId.size();
+            return students * (ENTRY_BYTES + TREE_NODE_BYTES + HASH_NODE_BYTES)
+                    + byId.capacity() * (Long.BYTES + 4L)
+                    + tableSize(byEmail.size()) * 4L
+                    + stringBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long estimatedBytesPerMillion() {
+        int students = size();
+        return students == 0 ? 0 : estimatedBytes() * 1_000_000 / students;
+    }
+
+    // Streams the table in batches, so readers are only blocked one batch at a
+    // time. The outbox position is read first, in the same transaction: a
+    // replica that lags behind shows the position it has caught up to, and
+    // the tail replays whatever committed after it from the primary.
+    void load(TransactionTemplate transaction) {
+        long started = System.nanoTime();
+        long since;
+        lock.writeLock().lock();
+        try {
+            since = sequence;
+            changed.values().removeIf(changedAt -> changedAt <= since);
+            byId.clear();
+            byEmail.clear();
+            byName.clear();
+            stringBytes = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            long position = transaction.execute(status -> {
+                long latest = studentChangeRepository.findLatestId();
+                try (Stream<StudentView> students = studentRepository.streamAllStudentViews()) {
+                    List<StudentView> batch = new ArrayList<>(BATCH_SIZE);
+                    students.forEach(student -> {
+                        batch.add(student);
+                        if (batch.size() == BATCH_SIZE) {
+                            apply(batch, since);
+                            batch.clear();
+                        }
+                    });
+                    apply(batch, since);
+                }
+                return latest;
+            });
+            tail = new StudentChangeCursor(position, gapTimeout);
+            ready = true;
+            LOG.info("Loaded {} students into the index in {} ms, about {} MB ({} MB per million students)",
+                    size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started),
+                    estimatedBytes() >> 20,
+                    estimatedBytesPerMillion() >> 20);
+        } catch (RuntimeException e) {
+            LOG.warn("Failed to load the student index, lookups stay on the database", e);
+        }
+    }
+
+    void apply(List<StudentView> students, long since) {
+        lock.writeLock().lock();
+        try {
+            for (StudentView student : students) {
+                put(StudentIndexEntry.of(student), since);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Applies the changes committed since the last poll, by this instance or
+    // any other. This instance's own were already dropped by their event, and
+    // reading them back once more is harmless.
+    void poll() {
+        StudentChangeCursor cursor = tail;
+        if (!ready || cursor == null) {
+            return;
+        }
+        try {
+            List<StudentChange> changes;
+            do {
+                changes = cursor.advance(primaryTransaction.execute(status ->
+                        studentChangeRepository.findChangesAfter(cursor.position(), PageRequest.ofSize(BATCH_SIZE))));
+                for (StudentChangedEvent event : events(changes)) {
+                    pendingRefreshes.incrementAndGet();
+                    try {
+                        long changedAt = invalidate(event);
+                        if (event.type() != StudentChangedEvent.Type.DELETED) {
+                            refresh(List.copyOf(event.studentIds()), changedAt);
+                        }
+                    } finally {
+                        pendingRefreshes.decrementAndGet();
+                    }
+                    if (tail != cursor) {
+                        // a failed refresh reloaded the index, which starts its own tail
+                        return;
+                    }
+                }
+            } while (changes.size() == BATCH_SIZE);
+        } catch (RuntimeException e) {
+            LOG.warn("Failed to read student changes after {}", cursor.position(), e);
+        }
+    }
+
+    // drops the students' entries and returns the sequence their refresh reads at
+    private long invalidate(StudentChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            long changedAt = ++sequence;
+            for (Long studentId : event.studentIds()) {
+                StudentIndexEntry current = byId.remove(studentId);
+                if (current != null) {
+                    unlink(current);
+                }
+                if (event.type() == StudentChangedEvent.Type.DELETED) {
+                    deleted.put(studentId, Boolean.TRUE);
+                } else {
+                    changed.put(studentId, changedAt);
+                }
+            }
+            return changedAt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void refresh(List<Long> studentIds, long changedAt) {
+        try {
+            for (int from = 0; from < studentIds.size(); from += BATCH_SIZE) {
+                List<Long> chunk = studentIds.subList(from, Math.min(from + BATCH_SIZE, studentIds.size()));
+                List<StudentView> students = primaryTransaction.execute(
+                        status -> studentRepository.findStudentViewsByIdIn(chunk));
+                lock.writeLock().lock();
+                try {
+                    for (StudentView student : students) {
+                        put(StudentIndexEntry.of(student), changedAt);
+                    }
+                    // ids without a row were deleted meanwhile; their own event tombstones them
+                    chunk.forEach(studentId -> changed.computeIfPresent(studentId,
+                            (id, at) -> at > changedAt ? at : null));
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        } catch (RuntimeException e) {
+            // searches would silently miss the dropped students, so start over;
+            // from the primary, since load gives up the guards of every change
+            // made so far and only the primary is sure to have them all
+            LOG.warn("Failed to refresh {} students, reloading the index", studentIds.size(), e);
+            ready = false;
+            load(primaryTransaction);
+        }
+    }
+
+    // caller holds the write lock
+    private void put(StudentIndexEntry entry, long readAt) {
+        if (deleted.getIfPresent(entry.id()) != null) {
+            return;
+        }
+        Long changedAt = changed.get(entry.id());
+        if (changedAt != null && changedAt > readAt) {
+            // a later refresh is queued for this student
+            return;
+        }
+        StudentIndexEntry current = byId.get(entry.id());
+        if (current != null) {
+            if (current.version() > entry.version()) {
+                return;
+            }
+            unlink(current);
+        }
+        byId.put(entry.id(), entry);
+        if (entry.email() != null) {
+            byEmail.put(entry.email(), entry);
+        }
+        byName.add(entry);
+        stringBytes += stringBytes(entry);
+    }
+
+    // caller holds the write lock and has taken the entry out of byId
+    private void unlink(StudentIndexEntry entry) {
+        if (entry.email() != null) {
+            byEmail.remove(entry.email(), entry);
+        }
+        byName.remove(entry);
+        stringBytes -= stringBytes(entry);
+    }
+
+    // consecutive changes of one type become one event, so they are read back together
+    private static List<StudentChangedEvent> events(List<StudentChange> changes) {
+        List<StudentChangedEvent> events = new ArrayList<>();
+        List<Long> studentIds = new ArrayList<>();
+        for (int i = 0; i < changes.size(); i++) {
+            StudentChange change = changes.get(i);
+            studentIds.add(change.getStudentId());
+            if (i == changes.size() - 1 || changes.get(i + 1).getType() != change.getType()) {
+                events.add(new StudentChangedEvent(change.getType(), studentIds));
+                studentIds = new ArrayList<>();
+            }
+        }
+        return events;
+    }
+
+    private static boolean answerable(StudentSearchCriteria criteria) {
+        return criteria.sort() == StudentSearchCriteria.Sort.NAME
+                && hasText(criteria.namePrefix())
+                && !hasText(criteria.emailDomain())
+                && criteria.bornFrom() == null
+                && criteria.bornTo() == null
+                && criteria.minAge() == null
+                && criteria.maxAge() == null;
+    }
+
+    private static long stringBytes(StudentIndexEntry entry) {
+        // nameKey is the name itself when the name is already lower case
+        return stringBytes(entry.name())
+                + stringBytes(entry.email())
+                + (entry.nameKey() == entry.name() ? 0 : stringBytes(entry.nameKey()));
+    }
+
+    private static long stringBytes(String value) {
+        return value == null ? 0 : 24 + ((16 + value.length() + 7) & ~7L);
+    }
+
+    private static long tableSize(int entries) {
+        return Integer.highestOneBit(Math.max(1, (int) (entries / 0.75f))) << 1;
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.demo.student;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+
+// One student in StudentIndex. The date of birth is kept as an epoch day and
+// nameKey shares the name's String whenever the name is already lower case.
+record StudentIndexEntry(long id, String name, String nameKey, String email, int dobEpochDay, long version) {
+
+    static final int NO_DOB = Integer.MIN_VALUE;
+
+    static final Comparator<StudentIndexEntry> BY_NAME = Comparator
+            .comparing(StudentIndexEntry::nameKey, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparingLong(StudentIndexEntry::id);
+
+    static StudentIndexEntry of(StudentView student) {
+        return new StudentIndexEntry(
+                student.id(),
+                student.name(),
+                Student.nameKeyOf(student.name()),
+                student.email(),
+                student.dob() == null ? NO_DOB : (int) student.dob().toEpochDay(),
+                student.version() == null ? 0 : student.version());
+    }
+
+    // a probe for seeking into the name ordering
+    static StudentIndexEntry nameProbe(String nameKey, long id) {
+        return new StudentIndexEntry(id, null, nameKey, null, NO_DOB, 0);
+    }
+
+    StudentView toView(LocalDate today) {
+        LocalDate dob = dobEpochDay == NO_DOB ? null : LocalDate.ofEpochDay(dobEpochDay);
+        return new StudentView(id, name, email, dob, StudentAge.of(dob, today), version);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.demo.student;
+
+import java.util.List;
+
+// changeId is the latest outbox id, read in the same transaction as the students
+public record StudentPage(List<StudentView> students, Long nextCursor, long changeId) {
+}
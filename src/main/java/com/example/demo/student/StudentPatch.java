@@ -0,0 +1,4 @@
+package com.example.demo.student;
+
+public record StudentPatch(String name, String email) {
+}
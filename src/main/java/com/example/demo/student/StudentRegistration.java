@@ -0,0 +1,34 @@
+package com.example.demo.student;
+
+import java.util.UUID;
+
+public record StudentRegistration(UUID id,
+                                  State state,
+                                  Long studentId,
+                                  String message) {
+
+    public enum State {
+        PENDING,
+        REGISTERED,
+        DUPLICATE,
+        INVALID,
+        FAILED
+    }
+
+    static StudentRegistration pending(UUID id) {
+        return new StudentRegistration(id, State.PENDING, null, null);
+    }
+
+    static StudentRegistration failed(UUID id, String message) {
+        return new StudentRegistration(id, State.FAILED, null, message);
+    }
+
+    static StudentRegistration of(UUID id, StudentImportResult result) {
+        State state = switch (result.status()) {
+            case IMPORTED -> State.REGISTERED;
+            case DUPLICATE -> State.DUPLICATE;
+            case INVALID -> State.INVALID;
+        };
+        return new StudentRegistration(id, state, result.id(), result.message());
+    }
+}
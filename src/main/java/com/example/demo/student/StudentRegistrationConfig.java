@@ -0,0 +1,29 @@
+package com.example.demo.student;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.time.Duration;
+
+@Configuration
+public class StudentRegistrationConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "student.registration.store", havingValue = "memory", matchIfMissing = true)
+    StudentRegistrationStore inMemoryStudentRegistrationStore(
+            @Value("${student.registration.max-statuses:100000}") long maxStatuses,
+            @Value("${student.registration.status-retention:1h}") Duration statusRetention) {
+        return new InMemoryStudentRegistrationStore(maxStatuses, statusRetention);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "student.registration.store", havingValue = "jdbc")
+    StudentRegistrationStore jdbcStudentRegistrationStore(
+            NamedParameterJdbcTemplate jdbcTemplate,
+            @Value("${student.registration.status-retention:1h}") Duration statusRetention) {
+        return new JdbcStudentRegistrationStore(jdbcTemplate, statusRetention);
+    }
+}
@@ -0,0 +1,247 @@
+package com.example.demo.student;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Write-behind path for POST api/v1/student when student.registration.mode=queued.
+// Registrations are validated up front, parked in a bounded queue and written in
+// batches through StudentImportService.importChunk by a single writer thread.
+// On shutdown the web server stops first, so every accepted registration is
+// in the queue before the writer empties it. Statuses go to the
+// StudentRegistrationStore; with the default memory store a poll must reach the
+// instance that took the registration, so run more than one instance with
+// student.registration.store=jdbc.
+@Service
+public class StudentRegistrationQueue implements SmartLifecycle {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StudentRegistrationQueue.class);
+
+    private final StudentImportService studentImportService;
+    private final boolean enabled;
+    private final BlockingQueue<Pending> queue;
+    private final int batchSize;
+    private final Duration maxBatchDelay;
+    private final StudentRegistrationStore registrations;
+
+    private volatile boolean running;
+    private volatile boolean stopping;
+    private Thread writer;
+
+    @Autowired
+    public StudentRegistrationQueue(StudentImportService studentImportService,
+                                    StudentRegistrationStore registrations,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${student.registration.mode:direct}") String mode,
+                                    @Value("${student.registration.queue-capacity:10000}") int capacity,
+                                    @Value("${student.registration.batch-size:500}") int batchSize,
+                                    @Value("${student.registration.max-batch-delay:50ms}") Duration maxBatchDelay) {
+        this.studentImportService = studentImportService;
+        this.enabled = "queued".equalsIgnoreCase(mode);
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.maxBatchDelay = maxBatchDelay;
+        this.registrations = registrations;
+        Gauge.builder("student.registration.queue.size", queue, BlockingQueue::size)
+                .description("Registrations waiting for the batch writer")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // empty when the queue is full or shutting down and the caller should back off
+    public Optional<StudentRegistration> submit(Student student) {
+        String problem = StudentImportService.validate(student);
+        if (problem != null) {
+            throw new IllegalArgumentException(problem);
+        }
+        if (stopping) {
+            return Optional.empty();
+        }
+
+        StudentRegistration registration = StudentRegistration.pending(UUID.randomUUID());
+        registrations.add(registration);
+        if (!queue.offer(new Pending(registration.id(), student))) {
+            registrations.remove(registration.id());
+            return Optional.empty();
+        }
+        return Optional.of(registration);
+    }
+
+    public Optional<StudentRegistration> find(UUID id) {
+        return registrations.find(id);
+    }
+
+    @Override
+    public void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        stopping = false;
+        writer = Thread.ofPlatform()
+                .name("student-registration-writer")
+                .daemon()
+                .start(this::drain);
+    }
+
+    @Override
+    public void stop() {
+        stopping = true;
+        running = false;
+        if (writer != null) {
+            try {
+                // the writer empties the queue before it exits
+                writer.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            writer = null;
+            // a submit that passed the check as stopping began lands after the writer's last look
+            List<Pending> late = new ArrayList<>();
+            queue.drainTo(late);
+            if (!late.isEmpty()) {
+                write(late);
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // below the web server's own phase, so the queue starts before the server
+    // takes requests and stops only after graceful shutdown let them finish
+    @Override
+    public int getPhase() {
+        return WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 2048;
+    }
+
+    private void drain() {
+        while (running || !queue.isEmpty()) {
+            try {
+                List<Pending> batch = nextBatch();
+                if (!batch.isEmpty()) {
+                    write(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // waits up to maxBatchDelay after the first arrival to fill the batch
+    private List<Pending> nextBatch() throws InterruptedException {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return batch;
+        }
+        batch.add(first);
+
+        long deadline = System.nanoTime() + maxBatchDelay.toNanos();
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                break;
+            }
+            Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+        return batch;
+    }
+
+    private void write(List<Pending> batch) {
+        try {
+            record(batch, studentImportService.importChunk(rows(batch)));
+        } catch (DataIntegrityViolationException e) {
+            if (!Student.violatesUniqueEmail(e)) {
+                fail(batch, e);
+                return;
+            }
+            // a direct write took one of the emails after our duplicate check;
+            // retry row by row so only the clashing registration is rejected
+            batch.forEach(this::writeOne);
+        } catch (RuntimeException e) {
+            fail(batch, e);
+        }
+    }
+
+    private void fail(List<Pending> batch, RuntimeException e) {
+        LOG.error("Failed to write {} queued registrations", batch.size(), e);
+        store(batch.stream()
+                .map(pending -> StudentRegistration.failed(pending.id(), e.getMessage()))
+                .toList());
+    }
+
+    private void writeOne(Pending pending) {
+        List<Pending> single = List.of(pending);
+        try {
+            record(single, studentImportService.importChunk(rows(single)));
+        } catch (DataIntegrityViolationException e) {
+            store(List.of(Student.violatesUniqueEmail(e)
+                    ? new StudentRegistration(
+                            pending.id(), StudentRegistration.State.DUPLICATE, null, "Student already exists")
+                    : StudentRegistration.failed(pending.id(), e.getMessage())));
+        } catch (RuntimeException e) {
+            store(List.of(StudentRegistration.failed(pending.id(), e.getMessage())));
+        }
+    }
+
+    private void record(List<Pending> batch, List<StudentImportResult> results) {
+        List<StudentRegistration> written = new ArrayList<>(results.size());
+        for (StudentImportResult result : results) {
+            written.add(StudentRegistration.of(batch.get(result.row() - 1).id(), result));
+        }
+        store(written);
+    }
+
+    // the students are written by now; losing their status must not stop the writer
+    private void store(List<StudentRegistration> written) {
+        try {
+            registrations.update(written);
+        } catch (RuntimeException e) {
+            LOG.error("Failed to record the status of {} queued registrations", written.size(), e);
+        }
+    }
+
+    private static List<StudentImportService.ImportRow> rows(List<Pending> batch) {
+        List<StudentImportService.ImportRow> rows = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            rows.add(new StudentImportService.ImportRow(i + 1, batch.get(i).copy()));
+        }
+        return rows;
+    }
+
+    private record Pending(UUID id, Student student) {
+
+        // a rolled back persist leaves id and version set, so every attempt gets a fresh entity
+        Student copy() {
+            return new Student(student.getName(), student.getEmail(), student.getDob());
+        }
+    }
+}
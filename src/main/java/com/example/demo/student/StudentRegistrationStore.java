@@ -0,0 +1,17 @@
+package com.example.demo.student;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface StudentRegistrationStore {
+
+    void add(StudentRegistration pending);
+
+    // replaces the status of registrations added earlier
+    void update(List<StudentRegistration> registrations);
+
+    Optional<StudentRegistration> find(UUID id);
+
+    void remove(UUID id);
+}
@@ -1,14 +1,113 @@
 package com.example.demo.student;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
 public interface StudentRepository
         extends JpaRepository<Student, Long> {
 
+    // age is derived in the query against the statement's current_date
+    String STUDENT_VIEW = "new com.example.demo.student.StudentView("
+            + "s.id, s.name, s.email, s.dob, "
+            + "year(current_date) - year(s.dob) - "
+            + "case when month(current_date) < month(s.dob) "
+            + "or (month(current_date) = month(s.dob) and day(current_date) < day(s.dob)) "
+            + "then 1 else 0 end, "
+            + "s.version)";
+
     @Query("SELECT s FROM Student s WHERE s.email = ?1")
     Optional<Student> findStudentByEmail(String email);
+
+    @Query("SELECT s.email FROM Student s WHERE s.email IN ?1")
+    Set<String> findExistingEmails(Collection<String> emails);
+
+    @Query("SELECT s.id FROM Student s WHERE s.id IN ?1")
+    Set<Long> findExistingIds(Collection<Long> ids);
+
+    // declared queries get no transaction of their own, which keeps these on
+    // the primary: what they return is cached, and a lagging replica would
+    // put a stale student in the cache after a change had evicted it
+    @Query("SELECT " + STUDENT_VIEW + " FROM Student s WHERE s.id = ?1")
+    Optional<StudentView> findStudentViewById(Long id);
+
+    @Query("SELECT " + STUDENT_VIEW + " FROM Student s WHERE s.email = ?1")
+    Optional<StudentView> findStudentViewByEmail(String email);
+
+    @Query("SELECT " + STUDENT_VIEW + " FROM Student s WHERE s.id IN ?1")
+    List<StudentView> findStudentViewsByIdIn(Collection<Long> ids);
+
+    @Query("SELECT " + STUDENT_VIEW + " FROM Student s WHERE s.id > ?1 ORDER BY s.id")
+    List<StudentView> findStudentViewsAfter(Long after, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT " + STUDENT_VIEW + " FROM Student s ORDER BY s.id")
+    Stream<StudentView> streamAllStudentViews();
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Student s WHERE s.id = ?1")
+    int deleteStudentById(Long id);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Student s WHERE s.id IN ?1")
+    int deleteStudentsByIdIn(Collection<Long> ids);
+
+    // where Student.emailDomainOf split the email: email_domain is what follows
+    // its last @, so the local part is everything before the last
+    // length(email_domain) characters. The check on the @ leaves out rows whose
+    // domain changed length when it was lowercased, and those without an @.
+    String SPLITS_AT_LAST_AT = "substring(s.email, length(s.email) - length(s.emailDomain), 1) = '@'";
+
+    // keeps everything up to the last @ and swaps what follows for the new domain
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Student s SET "
+            + "s.email = concat(substring(s.email, 1, length(s.email) - length(s.emailDomain)), ?2), "
+            + "s.emailDomain = ?3, "
+            + "s.version = s.version + 1 "
+            + "WHERE s.id IN ?1 AND " + SPLITS_AT_LAST_AT)
+    int updateEmailDomainByIdIn(Collection<Long> ids, String domain, String emailDomain);
+
+    // the rows updateEmailDomainByIdIn leaves alone
+    @Query("SELECT s.id FROM Student s WHERE s.id IN ?1 AND (s.emailDomain IS NULL OR NOT " + SPLITS_AT_LAST_AT + ")")
+    Set<Long> findIdsWithoutEmailDomain(Collection<Long> ids);
+
+    // null leaves a column as it is; the key columns are passed in because
+    // a bulk update bypasses the entity setters that normally derive them.
+    // emailDomain follows the email, even when the new one has no domain
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Student s SET "
+            + "s.name = coalesce(?2, s.name), "
+            + "s.nameKey = coalesce(?3, s.nameKey), "
+            + "s.email = coalesce(?4, s.email), "
+            + "s.emailDomain = case when ?4 is null then s.emailDomain else ?5 end, "
+            + "s.version = s.version + 1 "
+            + "WHERE s.id = ?1")
+    int updateStudent(Long id, String name, String nameKey, String email, String emailDomain);
+
+    // same as updateStudent, but only while the row is still at the version the caller saw
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Student s SET "
+            + "s.name = coalesce(?3, s.name), "
+            + "s.nameKey = coalesce(?4, s.nameKey), "
+            + "s.email = coalesce(?5, s.email), "
+            + "s.emailDomain = case when ?5 is null then s.emailDomain else ?6 end, "
+            + "s.version = s.version + 1 "
+            + "WHERE s.id = ?1 AND s.version = ?2")
+    int updateStudentIfVersion(Long id,
+                               Long version,
+                               String name,
+                               String nameKey,
+                               String email,
+                               String emailDomain);
 }
@@ -0,0 +1,28 @@
+package com.example.demo.student;
+
+import java.time.LocalDate;
+import java.util.Locale;
+
+public record StudentSearchCriteria(String namePrefix,
+                                    String emailDomain,
+                                    LocalDate bornFrom,
+                                    LocalDate bornTo,
+                                    Integer minAge,
+                                    Integer maxAge,
+                                    Sort sort,
+                                    String cursor,
+                                    int limit) {
+
+    public enum Sort {
+        ID, NAME, DOB;
+
+        public static Sort from(String value) {
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(
+                        "Unsupported sort " + value + ", expected one of id, name, dob");
+            }
+        }
+    }
+}
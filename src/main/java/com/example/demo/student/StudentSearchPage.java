@@ -0,0 +1,8 @@
+package com.example.demo.student;
+
+import java.util.List;
+
+// changeId is the latest outbox id, read in the same transaction as the
+// students, or null when the page came from somewhere that does not know it
+public record StudentSearchPage(List<StudentView> students, String nextCursor, Long changeId) {
+}
@@ -0,0 +1,193 @@
+package com.example.demo.student;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+// Builds the native search statement. Every filter is a range or equality on
+// an indexed column (name_key, email_domain, dob) and every sort is backed by
+// a (column, id) index, so keyset paging never needs to sort the table.
+// Students without a name or dob sort first, as they do in those indexes.
+final class StudentSearchQuery {
+
+    private static final String COLUMNS = "s.id, s.name, s.email, s.dob, s.version";
+
+    private final StudentSearchCriteria.Sort sort;
+    private final int limit;
+    private final MapSqlParameterSource params = new MapSqlParameterSource();
+    private final String where;
+    private final String sql;
+
+    StudentSearchQuery(StudentSearchCriteria criteria, int limit, LocalDate today) {
+        this.sort = criteria.sort();
+        this.limit = limit;
+
+        List<String> conditions = new ArrayList<>();
+
+        if (hasText(criteria.namePrefix())) {
+            // the range lets the planner seek into the index, LIKE rechecks the exact prefix
+            String prefix = Student.nameKeyOf(criteria.namePrefix());
+            conditions.add("s.name_key >= :namePrefix AND s.name_key < :namePrefixEnd"
+                    + " AND s.name_key LIKE :namePattern ESCAPE '\\'");
+            params.addValue("namePrefix", prefix)
+                    .addValue("namePrefixEnd", prefixEnd(prefix))
+                    .addValue("namePattern", escapeLike(prefix) + "%");
+        }
+
+        if (hasText(criteria.emailDomain())) {
+            conditions.add("s.email_domain = :emailDomain");
+            params.addValue("emailDomain", Student.emailDomainOf("@" + criteria.emailDomain()));
+        }
+
+        // age bounds are turned into dob bounds so they hit the dob index too
+        LocalDate bornFrom = criteria.bornFrom();
+        LocalDate bornTo = criteria.bornTo();
+        if (criteria.maxAge() != null) {
+            bornFrom = latest(bornFrom, today.minusYears(criteria.maxAge() + 1L).plusDays(1));
+        }
+        if (criteria.minAge() != null) {
+            bornTo = earliest(bornTo, today.minusYears(criteria.minAge()));
+        }
+        if (bornFrom != null) {
+            conditions.add("s.dob >= :bornFrom");
+            params.addValue("bornFrom", bornFrom);
+        }
+        if (bornTo != null) {
+            conditions.add("s.dob <= :bornTo");
+            params.addValue("bornTo", bornTo);
+        }
+
+        if (criteria.cursor() != null) {
+            conditions.add(cursorCondition(criteria.cursor()));
+        }
+
+        params.addValue("limit", limit);
+
+        this.where = conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+        this.sql = "SELECT " + COLUMNS + " FROM student s" + where
+                + " ORDER BY " + orderBy()
+                + " FETCH FIRST :limit ROWS ONLY";
+    }
+
+    String sql() {
+        return sql;
+    }
+
+    // just the matching ids, in id order, for the bulk endpoints
+    String idsSql() {
+        return "SELECT s.id FROM student s" + where + " ORDER BY s.id FETCH FIRST :limit ROWS ONLY";
+    }
+
+    MapSqlParameterSource params() {
+        return params;
+    }
+
+    int limit() {
+        return limit;
+    }
+
+    String cursorAfter(StudentView last) {
+        String key = switch (sort) {
+            case ID -> "";
+            case NAME -> Student.nameKeyOf(last.name());
+            case DOB -> last.dob() == null ? null : last.dob().toString();
+        };
+        return encodeCursor(key, last.id());
+    }
+
+    // also used by StudentIndex, so a cursor from either source continues in the other;
+    // a null key is written as the bare id
+    static String encodeCursor(String key, long id) {
+        String cursor = key == null ? Long.toString(id) : key + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Cursor decodeCursor(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.lastIndexOf('|');
+            return separator < 0
+                    ? new Cursor(null, Long.parseLong(decoded))
+                    : new Cursor(decoded.substring(0, separator), Long.parseLong(decoded.substring(separator + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor " + cursor);
+        }
+    }
+
+    private String orderBy() {
+        return switch (sort) {
+            case ID -> "s.id";
+            case NAME -> "s.name_key NULLS FIRST, s.id";
+            case DOB -> "s.dob NULLS FIRST, s.id";
+        };
+    }
+
+    private String cursorCondition(String cursor) {
+        Cursor decoded = decodeCursor(cursor);
+        String key = decoded.key();
+        params.addValue("cursorId", decoded.id());
+
+        return switch (sort) {
+            case ID -> "s.id > :cursorId";
+            case NAME -> {
+                if (key == null) {
+                    yield afterNull("s.name_key");
+                }
+                params.addValue("cursorKey", key);
+                yield "s.name_key >= :cursorKey AND (s.name_key > :cursorKey OR s.id > :cursorId)";
+            }
+            case DOB -> {
+                if (key == null) {
+                    yield afterNull("s.dob");
+                }
+                params.addValue("cursorKey", parseDate(key, cursor));
+                yield "s.dob >= :cursorKey AND (s.dob > :cursorKey OR s.id > :cursorId)";
+            }
+        };
+    }
+
+    // the rest of the nulls, then every non-null value
+    private static String afterNull(String column) {
+        return "(" + column + " IS NULL AND s.id > :cursorId OR " + column + " IS NOT NULL)";
+    }
+
+    private static LocalDate parseDate(String key, String cursor) {
+        try {
+            return LocalDate.parse(key);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor " + cursor);
+        }
+    }
+
+    private static String prefixEnd(String prefix) {
+        int last = prefix.length() - 1;
+        return prefix.substring(0, last) + (char) (prefix.charAt(last) + 1);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+
+    private static LocalDate latest(LocalDate a, LocalDate b) {
+        return a == null || b.isAfter(a) ? b : a;
+    }
+
+    private static LocalDate earliest(LocalDate a, LocalDate b) {
+        return a == null || b.isBefore(a) ? b : a;
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+
+    record Cursor(String key, long id) {
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.demo.student;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public class StudentSearchRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public StudentSearchRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // the change id is read first, in the same transaction, see StudentService.getStudents
+    @Transactional(readOnly = true)
+    public StudentSearchPage search(StudentSearchCriteria criteria, int limit) {
+        LocalDate today = LocalDate.now();
+        StudentSearchQuery query = new StudentSearchQuery(criteria, limit, today);
+        Long changeId = jdbcTemplate.getJdbcTemplate().queryForObject(
+                "SELECT coalesce(max(id), 0) FROM student_change", Long.class);
+
+        List<StudentView> students = jdbcTemplate.query(query.sql(), query.params(),
+                (rs, rowNum) -> {
+                    LocalDate dob = rs.getObject("dob", LocalDate.class);
+                    return new StudentView(
+                            rs.getLong("id"),
+                            rs.getString("name"),
+                            rs.getString("email"),
+                            dob,
+                            StudentAge.of(dob, today),
+                            rs.getLong("version"));
+                });
+
+        String nextCursor = students.size() == limit
+                ? query.cursorAfter(students.get(students.size() - 1))
+                : null;
+        return new StudentSearchPage(students, nextCursor, changeId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Long> findIds(StudentSearchCriteria criteria, int limit) {
+        StudentSearchQuery query = new StudentSearchQuery(criteria, limit, LocalDate.now());
+        return jdbcTemplate.queryForList(query.idsSql(), query.params(), Long.class);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.demo.student;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.OptimizableGenerator;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * Sequence generator whose block size can be overridden through the
+ * {@code student.id.block-size} Hibernate setting
+ * ({@code spring.jpa.properties.student.id.block-size}).
+ */
+public class StudentSequenceGenerator extends SequenceStyleGenerator {
+
+    static final String BLOCK_SIZE_SETTING = "student.id.block-size";
+
+    @Override
+    public void configure(Type type,
+                          Properties parameters,
+                          ServiceRegistry serviceRegistry) {
+        Object blockSize = serviceRegistry
+                .requireService(ConfigurationService.class)
+                .getSettings()
+                .get(BLOCK_SIZE_SETTING);
+
+        if (blockSize != null) {
+            parameters.setProperty(
+                    OptimizableGenerator.INCREMENT_PARAM,
+                    blockSize.toString());
+        }
+
+        super.configure(type, parameters, serviceRegistry);
+    }
+}
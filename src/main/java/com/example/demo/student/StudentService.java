@@ -1,72 +1,192 @@
 package com.example.demo.student;
 
+import com.example.demo.jdbc.StatementBudget;
+import io.micrometer.observation.annotation.Observed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
+@Observed(name = "student.service")
 public class StudentService {
 
+    static final int MAX_PAGE_SIZE = 1000;
+
     private final StudentRepository studentRepository;
+    private final StudentChangeRepository studentChangeRepository;
+    private final StudentSearchRepository studentSearchRepository;
+    private final StudentIndex studentIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public StudentService(StudentRepository studentRepository) {
+    public StudentService(StudentRepository studentRepository,
+                          StudentChangeRepository studentChangeRepository,
+                          StudentSearchRepository studentSearchRepository,
+                          StudentIndex studentIndex,
+                          ApplicationEventPublisher eventPublisher) {
         this.studentRepository = studentRepository;
+        this.studentChangeRepository = studentChangeRepository;
+        this.studentSearchRepository = studentSearchRepository;
+        this.studentIndex = studentIndex;
+        this.eventPublisher = eventPublisher;
     }
 
 
-    public List<Student> getStudents() {
-        return studentRepository.findAll();
+    // the change id comes first and from the same replica as the page, so the
+    // page is never older than the tag it is served under
+    @StatementBudget(2)
+    @Transactional(readOnly = true)
+    public StudentPage getStudents(Long after, int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        long changeId = studentChangeRepository.findLatestId();
+        List<StudentView> students = studentRepository.findStudentViewsAfter(
+                after == null ? 0L : after,
+                PageRequest.ofSize(pageSize));
+
+        Long nextCursor = students.size() == pageSize
+                ? students.get(students.size() - 1).id()
+                : null;
+
+        return new StudentPage(students, nextCursor, changeId);
     }
 
-    public void addNewStudent(Student student) {
-        Optional<Student> studentOptional = studentRepository
-                .findStudentByEmail(student.getEmail());
+    // no transaction here, so an index hit never borrows a connection
+    @StatementBudget(2)
+    public StudentSearchPage searchStudents(StudentSearchCriteria criteria) {
+        int pageSize = Math.min(Math.max(criteria.limit(), 1), MAX_PAGE_SIZE);
+        return studentIndex.search(criteria, pageSize)
+                .orElseGet(() -> studentSearchRepository.search(criteria, pageSize));
+    }
 
-        if (studentOptional.isPresent()) {
-            throw new IllegalArgumentException("Student already exists");
+    @StatementBudget(1)
+    @Transactional(readOnly = true)
+    public void streamStudents(Consumer<StudentView> consumer) {
+        // projections are never attached to the persistence context,
+        // so memory stays flat however many rows go through
+        try (Stream<StudentView> students = studentRepository.streamAllStudentViews()) {
+            students.forEach(consumer);
         }
+    }
+
+    @Cacheable(cacheNames = StudentCacheConfig.STUDENTS, key = "#studentId")
+    @StatementBudget(1)
+    public StudentView getStudent(Long studentId) {
+        return studentIndex.findById(studentId)
+                .or(() -> studentRepository.findStudentViewById(studentId))
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Student with id " + studentId + " does not exist"));
+    }
 
-        studentRepository.save(student);
+    @Cacheable(cacheNames = StudentCacheConfig.STUDENTS_BY_EMAIL, key = "#email")
+    @StatementBudget(1)
+    public StudentView getStudentByEmail(String email) {
+        return studentIndex.findByEmail(email)
+                .or(() -> studentRepository.findStudentViewByEmail(email))
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Student with email " + email + " does not exist"));
     }
 
-    public void deleteStudent(Long studentId) {
-        boolean exists = studentRepository.existsById(studentId);
+    // student and outbox inserts, plus a nextval when the student id block runs out
+    @StatementBudget(3)
+    @Transactional
+    public void addNewStudent(Student student) {
+        try {
+            studentRepository.saveAndFlush(student);
+        } catch (DataIntegrityViolationException e) {
+            // the unique index on email is the single source of truth
+            if (Student.violatesUniqueEmail(e)) {
+                throw new IllegalArgumentException("Student already exists");
+            }
+            throw e;
+        }
+
+        eventPublisher.publishEvent(StudentChangedEvent.created(student.getId()));
+    }
 
-        if (!exists) {
+    @Caching(evict = {
+            @CacheEvict(cacheNames = StudentCacheConfig.STUDENTS, key = "#studentId"),
+            @CacheEvict(cacheNames = StudentCacheConfig.STUDENTS_BY_EMAIL, allEntries = true)
+    })
+    // the delete and its outbox row
+    @StatementBudget(2)
+    @Transactional
+    public void deleteStudent(Long studentId) {
+        if (studentRepository.deleteStudentById(studentId) == 0) {
             throw new IllegalArgumentException("Student with id " + studentId + " does not exist");
         }
 
-        studentRepository.deleteById(studentId);
+        eventPublisher.publishEvent(StudentChangedEvent.deleted(studentId));
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = StudentCacheConfig.STUDENTS, key = "#studentId"),
+            @CacheEvict(cacheNames = StudentCacheConfig.STUDENTS_BY_EMAIL, allEntries = true)
+    })
+    @StatementBudget(2)
     @Transactional
     public void updateStudent(Long studentId, String name, String email) {
-        Student student = studentRepository.findById(studentId)
-                .orElseThrow(() -> new IllegalArgumentException(
-                        "Student with id " + studentId + " does not exist"));
+        if (update(studentId, null, name, email) == 0) {
+            throw new IllegalArgumentException(
+                    "Student with id " + studentId + " does not exist");
+        }
+
+        eventPublisher.publishEvent(StudentChangedEvent.updated(studentId));
+    }
 
-        if (name != null &&
-                !name.isEmpty() &&
-                !Objects.equals(student.getName(), name)) {
-            student.setName(name);
+    // a null expectedVersion updates unconditionally, like PUT
+    @Caching(evict = {
+            @CacheEvict(cacheNames = StudentCacheConfig.STUDENTS, key = "#studentId"),
+            @CacheEvict(cacheNames = StudentCacheConfig.STUDENTS_BY_EMAIL, allEntries = true)
+    })
+    @StatementBudget(3)
+    @Transactional
+    public void patchStudent(Long studentId, Long expectedVersion, StudentPatch patch) {
+        if (update(studentId, expectedVersion, patch.name(), patch.email()) == 0) {
+            // only the failure path pays for telling a stale version from a missing row
+            if (expectedVersion != null && studentRepository.existsById(studentId)) {
+                throw new StudentVersionConflictException(studentId);
+            }
+            throw new IllegalArgumentException(
+                    "Student with id " + studentId + " does not exist");
         }
 
-        if (email != null &&
-                !email.isEmpty() &&
-                !Objects.equals(student.getEmail(), email)
-        ) {
+        eventPublisher.publishEvent(StudentChangedEvent.updated(studentId));
+    }
 
-            Optional<Student> studentOptional = studentRepository
-                    .findStudentByEmail(email);
-            if (studentOptional.isPresent()) {
+    private int update(Long studentId, Long expectedVersion, String name, String email) {
+        String newName = name == null || name.isEmpty() ? null : name;
+        String newEmail = email == null || email.isEmpty() ? null : email;
+
+        try {
+            return expectedVersion == null
+                    ? studentRepository.updateStudent(
+                            studentId,
+                            newName,
+                            Student.nameKeyOf(newName),
+                            newEmail,
+                            Student.emailDomainOf(newEmail))
+                    : studentRepository.updateStudentIfVersion(
+                            studentId,
+                            expectedVersion,
+                            newName,
+                            Student.nameKeyOf(newName),
+                            newEmail,
+                            Student.emailDomainOf(newEmail));
+        } catch (DataIntegrityViolationException e) {
+            if (Student.violatesUniqueEmail(e)) {
                 throw new IllegalArgumentException("Student with this email already exists");
             }
-            student.setEmail(email);
+            throw e;
         }
     }
 }
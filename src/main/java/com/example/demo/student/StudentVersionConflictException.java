@@ -0,0 +1,12 @@
+package com.example.demo.student;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class StudentVersionConflictException extends RuntimeException {
+
+    public StudentVersionConflictException(Long studentId) {
+        super("Student with id " + studentId + " has been modified by someone else");
+    }
+}
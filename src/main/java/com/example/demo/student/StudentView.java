@@ -0,0 +1,11 @@
+package com.example.demo.student;
+
+import java.time.LocalDate;
+
+public record StudentView(Long id,
+                          String name,
+                          String email,
+                          LocalDate dob,
+                          Integer age,
+                          Long version) {
+}
@@ -0,0 +1,77 @@
+package com.example.demo.web;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// AIMD limit on requests in flight: every limit-worth of healthy completions
+// raises it by one, an overloaded completion cuts it by a tenth (at most once
+// per cooldown so one slow burst does not collapse it to the floor).
+public class AdaptiveConcurrencyLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long cooldownNanos;
+    private final LongSupplier clock;
+
+    private final AtomicInteger limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger healthy = new AtomicInteger();
+    private final AtomicLong lastDecrease;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, long cooldownNanos) {
+        this(initialLimit, minLimit, maxLimit, cooldownNanos, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, long cooldownNanos, LongSupplier clock) {
+        if (minLimit < 1 || minLimit > maxLimit) {
+            throw new IllegalArgumentException("Invalid concurrency limits " + minLimit + ".." + maxLimit);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.cooldownNanos = cooldownNanos;
+        this.clock = clock;
+        this.limit = new AtomicInteger(Math.clamp(initialLimit, minLimit, maxLimit));
+        this.lastDecrease = new AtomicLong(clock.getAsLong() - cooldownNanos);
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit.get()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(boolean overloaded) {
+        inFlight.decrementAndGet();
+        if (overloaded) {
+            decrease();
+        } else if (healthy.incrementAndGet() >= limit.get()) {
+            healthy.set(0);
+            limit.updateAndGet(current -> Math.min(maxLimit, current + 1));
+        }
+    }
+
+    public int limit() {
+        return limit.get();
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    private void decrease() {
+        long now = clock.getAsLong();
+        long last = lastDecrease.get();
+        if (now - last < cooldownNanos || !lastDecrease.compareAndSet(last, now)) {
+            return;
+        }
+        healthy.set(0);
+        limit.updateAndGet(current -> Math.max(minLimit, (int) (current * 0.9)));
+    }
+}
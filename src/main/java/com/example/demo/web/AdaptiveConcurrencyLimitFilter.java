@@ -0,0 +1,77 @@
+package com.example.demo.web;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+// Sheds load with 503 once the adaptive limit is reached. A request counts as
+// overloaded when it took longer than the latency threshold or when threads
+// were waiting on the connection pool as it finished. Async requests (streams,
+// SSE) only hold a slot for their initial dispatch and their latency is ignored.
+// Bulk endpoints (imports, bulk updates) take seconds by design, so they are
+// held to their own threshold instead of cutting the limit for everyone else.
+public class AdaptiveConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final AdaptiveConcurrencyLimit limit;
+    private final long latencyThresholdNanos;
+    private final Set<String> bulkPaths;
+    private final long bulkLatencyThresholdNanos;
+    private final BooleanSupplier poolSaturated;
+    private final Counter rejected;
+
+    public AdaptiveConcurrencyLimitFilter(AdaptiveConcurrencyLimit limit,
+                                          Duration latencyThreshold,
+                                          Set<String> bulkPaths,
+                                          Duration bulkLatencyThreshold,
+                                          BooleanSupplier poolSaturated,
+                                          MeterRegistry registry) {
+        this.limit = limit;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.bulkPaths = Set.copyOf(bulkPaths);
+        this.bulkLatencyThresholdNanos = bulkLatencyThreshold.toNanos();
+        this.poolSaturated = poolSaturated;
+        this.rejected = Counter.builder(RateLimitFilter.REJECTED_METRIC)
+                .description("Requests turned away before reaching a controller")
+                .tag("reason", "overload")
+                .register(registry);
+        Gauge.builder("http.server.requests.concurrency.limit", limit, AdaptiveConcurrencyLimit::limit)
+                .description("Current adaptive limit on requests in flight")
+                .register(registry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (!limit.tryAcquire()) {
+            rejected.increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Server is overloaded");
+            return;
+        }
+
+        long threshold = bulkPaths.contains(UrlPathHelper.defaultInstance.getPathWithinApplication(request))
+                ? bulkLatencyThresholdNanos
+                : latencyThresholdNanos;
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            boolean slow = !request.isAsyncStarted() && System.nanoTime() - start > threshold;
+            limit.release(slow || poolSaturated.getAsBoolean());
+        }
+    }
+}
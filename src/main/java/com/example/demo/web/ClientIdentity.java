@@ -0,0 +1,24 @@
+package com.example.demo.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+// Who a request counts against for rate limits and read-your-writes. Any client
+// can send X-Client-Id, so it is only used when
+// student.web.trust-client-id-header says a gateway in front of us sets it
+// (replacing whatever the caller sent); otherwise every request is keyed on
+// its remote address.
+public class ClientIdentity {
+
+    public static final String CLIENT_ID_HEADER = "X-Client-Id";
+
+    private final boolean trustClientIdHeader;
+
+    public ClientIdentity(boolean trustClientIdHeader) {
+        this.trustClientIdHeader = trustClientIdHeader;
+    }
+
+    public String of(HttpServletRequest request) {
+        String clientId = trustClientIdHeader ? request.getHeader(CLIENT_ID_HEADER) : null;
+        return clientId != null && !clientId.isBlank() ? clientId : request.getRemoteAddr();
+    }
+}
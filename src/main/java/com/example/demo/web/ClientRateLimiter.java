@@ -0,0 +1,55 @@
+package com.example.demo.web;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// Token bucket per client, implemented as GCRA: each client is a single
+// AtomicLong holding the theoretical arrival time of its next request, updated
+// with one CAS. No locks, no refill thread; idle clients age out of the cache.
+public class ClientRateLimiter {
+
+    private final long emissionIntervalNanos;
+    private final long burstWindowNanos;
+    private final LongSupplier clock;
+    private final Cache<String, AtomicLong> clients;
+
+    public ClientRateLimiter(double permitsPerSecond, int burst) {
+        this(permitsPerSecond, burst, System::nanoTime);
+    }
+
+    ClientRateLimiter(double permitsPerSecond, int burst, LongSupplier clock) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate and burst must be positive");
+        }
+        this.emissionIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.burstWindowNanos = emissionIntervalNanos * burst;
+        this.clock = clock;
+        this.clients = Caffeine.newBuilder()
+                // a client idle for a full burst window is back to a full bucket anyway
+                .expireAfterAccess(Duration.ofNanos(burstWindowNanos).plusMinutes(1))
+                .maximumSize(1_000_000)
+                .build();
+    }
+
+    // 0 when the request may go ahead, otherwise how long the client has to wait
+    public long tryAcquire(String client) {
+        AtomicLong arrival = clients.get(client, key -> new AtomicLong(Long.MIN_VALUE));
+        long now = clock.getAsLong();
+        while (true) {
+            long current = arrival.get();
+            long next = Math.max(current, now) + emissionIntervalNanos;
+            long allowedAt = next - burstWindowNanos;
+            if (allowedAt > now) {
+                return allowedAt - now;
+            }
+            if (arrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
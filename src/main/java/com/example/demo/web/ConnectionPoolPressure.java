@@ -0,0 +1,39 @@
+package com.example.demo.web;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+// True while threads are queued for a Hikari connection in any pool. Looking
+// the gauges up walks the registry, so the answer is refreshed at most once
+// per sample interval by whichever request notices it is stale.
+public class ConnectionPoolPressure implements BooleanSupplier {
+
+    static final String PENDING_METRIC = "hikaricp.connections.pending";
+
+    private final MeterRegistry registry;
+    private final long sampleIntervalNanos;
+    private final AtomicLong nextSample = new AtomicLong(Long.MIN_VALUE);
+    private volatile boolean saturated;
+
+    public ConnectionPoolPressure(MeterRegistry registry, Duration sampleInterval) {
+        this.registry = registry;
+        this.sampleIntervalNanos = sampleInterval.toNanos();
+    }
+
+    @Override
+    public boolean getAsBoolean() {
+        long now = System.nanoTime();
+        long next = nextSample.get();
+        if ((next == Long.MIN_VALUE || now - next >= 0)
+                && nextSample.compareAndSet(next, now + sampleIntervalNanos)) {
+            saturated = registry.find(PENDING_METRIC).gauges().stream()
+                    .mapToDouble(Gauge::value)
+                    .sum() > 0;
+        }
+        return saturated;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.demo.web;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Separate budgets for reads (GET, HEAD) and writes, so a client polling the
+// list cannot use up its own write allowance and vice versa.
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    static final String REJECTED_METRIC = "http.server.requests.rejected";
+
+    private final ClientRateLimiter reads;
+    private final ClientRateLimiter writes;
+    private final ClientIdentity clientIdentity;
+    private final Counter rejected;
+
+    public RateLimitFilter(ClientRateLimiter reads,
+                           ClientRateLimiter writes,
+                           ClientIdentity clientIdentity,
+                           MeterRegistry registry) {
+        this.reads = reads;
+        this.writes = writes;
+        this.clientIdentity = clientIdentity;
+        this.rejected = Counter.builder(REJECTED_METRIC)
+                .description("Requests turned away before reaching a controller")
+                .tag("reason", "rate-limit")
+                .register(registry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        ClientRateLimiter limiter = isRead(request) ? reads : writes;
+        long waitNanos = limiter.tryAcquire(clientIdentity.of(request));
+        if (waitNanos > 0) {
+            rejected.increment();
+            long seconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Rate limit exceeded");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private static boolean isRead(HttpServletRequest request) {
+        String method = request.getMethod();
+        return HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method);
+    }
+}
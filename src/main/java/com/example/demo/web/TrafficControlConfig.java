@@ -0,0 +1,60 @@
+package com.example.demo.web;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Set;
+
+@Configuration
+public class TrafficControlConfig {
+
+    @Bean
+    ClientIdentity clientIdentity(@Value("${student.web.trust-client-id-header:false}") boolean trustClientIdHeader) {
+        return new ClientIdentity(trustClientIdHeader);
+    }
+
+    // rate limits run first: a client over its budget should not take a concurrency slot
+    @Bean
+    @ConditionalOnProperty(name = "student.rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+    FilterRegistrationBean<RateLimitFilter> rateLimitFilter(
+            MeterRegistry registry,
+            ClientIdentity clientIdentity,
+            @Value("${student.rate-limit.read.per-second:50}") double readsPerSecond,
+            @Value("${student.rate-limit.read.burst:100}") int readBurst,
+            @Value("${student.rate-limit.write.per-second:10}") double writesPerSecond,
+            @Value("${student.rate-limit.write.burst:20}") int writeBurst) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(new RateLimitFilter(
+                new ClientRateLimiter(readsPerSecond, readBurst),
+                new ClientRateLimiter(writesPerSecond, writeBurst),
+                clientIdentity,
+                registry));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(0);
+        return registration;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "student.web.adaptive-limit.enabled", havingValue = "true", matchIfMissing = true)
+    FilterRegistrationBean<AdaptiveConcurrencyLimitFilter> adaptiveConcurrencyLimitFilter(
+            MeterRegistry registry,
+            @Value("${student.web.adaptive-limit.initial:50}") int initialLimit,
+            @Value("${student.web.adaptive-limit.min:10}") int minLimit,
+            @Value("${student.web.adaptive-limit.max:400}") int maxLimit,
+            @Value("${student.web.adaptive-limit.latency-threshold:250ms}") Duration latencyThreshold,
+            @Value("${student.web.adaptive-limit.bulk-paths:}") Set<String> bulkPaths,
+            @Value("${student.web.adaptive-limit.bulk-latency-threshold:30s}") Duration bulkLatencyThreshold) {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(
+                initialLimit, minLimit, maxLimit, latencyThreshold.toNanos());
+        FilterRegistrationBean<AdaptiveConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+                new AdaptiveConcurrencyLimitFilter(limit, latencyThreshold, bulkPaths, bulkLatencyThreshold,
+                        new ConnectionPoolPressure(registry, Duration.ofMillis(100)), registry));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(1);
+        return registration;
+    }
+}
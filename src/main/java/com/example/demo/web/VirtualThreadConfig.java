@@ -0,0 +1,27 @@
+package com.example.demo.web;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    // Tomcat's bounded worker pool used to cap how many requests could wait on
+    // the Hikari pool at once; with a thread per request that cap has to be explicit.
+    @Bean
+    FilterRegistrationBean<RequestConcurrencyLimitFilter> requestConcurrencyLimitFilter(
+            @Value("${student.web.max-concurrent-requests}") int maxConcurrentRequests,
+            @Value("${student.web.max-queue-wait}") Duration maxQueueWait) {
+        FilterRegistrationBean<RequestConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+                new RequestConcurrencyLimitFilter(maxConcurrentRequests, maxQueueWait));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
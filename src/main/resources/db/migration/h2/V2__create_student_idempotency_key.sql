@@ -0,0 +1,12 @@
+-- used when student.idempotency.store=jdbc, status stays null while the first request is running
+CREATE TABLE student_idempotency_key (
+    idempotency_key VARCHAR(255) NOT NULL,
+    fingerprint     VARCHAR(1024) NOT NULL,
+    status          INTEGER,
+    location        VARCHAR(1024),
+    registration    VARCHAR(2048),
+    created_at      TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (idempotency_key)
+);
+
+CREATE INDEX student_idempotency_key_created_at_idx ON student_idempotency_key (created_at);
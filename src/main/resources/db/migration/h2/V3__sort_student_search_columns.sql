@@ -0,0 +1,6 @@
+-- H2 already compares strings by code unit; the indexes spell out the
+-- nulls-first order the search statements ask for, see StudentSearchQuery
+DROP INDEX student_name_key_idx;
+CREATE INDEX student_name_key_idx ON student (name_key NULLS FIRST, id);
+DROP INDEX student_dob_idx;
+CREATE INDEX student_dob_idx ON student (dob NULLS FIRST, id);
@@ -0,0 +1,5 @@
+-- when the request running an unfinished key claimed it; a claim older than
+-- student.idempotency.claim-timeout is taken over by the next retry
+ALTER TABLE student_idempotency_key ADD COLUMN claimed_at TIMESTAMP(6) WITH TIME ZONE;
+UPDATE student_idempotency_key SET claimed_at = created_at;
+ALTER TABLE student_idempotency_key ALTER COLUMN claimed_at SET NOT NULL;
@@ -0,0 +1,11 @@
+-- used when student.registration.store=jdbc, so any instance can answer a status poll
+CREATE TABLE student_registration (
+    id         UUID NOT NULL,
+    state      VARCHAR(16) NOT NULL,
+    student_id BIGINT,
+    message    VARCHAR(2048),
+    updated_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX student_registration_updated_at_idx ON student_registration (updated_at);
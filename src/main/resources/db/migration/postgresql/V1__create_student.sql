@@ -0,0 +1,29 @@
+-- increments must match spring.jpa.properties.student.id.block-size
+CREATE SEQUENCE student_sequence START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE student_change_sequence START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE student (
+    id           BIGINT NOT NULL,
+    name         VARCHAR(255),
+    email        VARCHAR(255),
+    dob          DATE,
+    name_key     VARCHAR(255),
+    email_domain VARCHAR(255),
+    version      BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (id)
+);
+
+CREATE UNIQUE INDEX student_email_unique ON student (email);
+CREATE INDEX student_name_key_idx ON student (name_key, id);
+CREATE INDEX student_email_domain_idx ON student (email_domain, id);
+CREATE INDEX student_dob_idx ON student (dob, id);
+
+CREATE TABLE student_change (
+    id         BIGINT NOT NULL,
+    type       VARCHAR(255) CHECK (type IN ('CREATED', 'UPDATED', 'DELETED')),
+    student_id BIGINT,
+    created_at TIMESTAMP(6) WITH TIME ZONE,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX student_change_created_at_idx ON student_change (created_at);
@@ -0,0 +1,9 @@
+-- name-prefix search scans the range [prefix, prefix + 1), which only holds
+-- under byte order; "C" also gives the order StudentIndex keeps in memory
+ALTER TABLE student ALTER COLUMN name_key TYPE VARCHAR(255) COLLATE "C";
+
+-- students without a name or dob come first in search results, see StudentSearchQuery
+DROP INDEX student_name_key_idx;
+CREATE INDEX student_name_key_idx ON student (name_key NULLS FIRST, id);
+DROP INDEX student_dob_idx;
+CREATE INDEX student_dob_idx ON student (dob NULLS FIRST, id);
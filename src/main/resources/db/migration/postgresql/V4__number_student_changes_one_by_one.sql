@@ -0,0 +1,3 @@
+-- outbox ids are drawn one at a time, in the order the changes are written,
+-- so readers can tell a change still in flight from a gap (see StudentChangeCursor)
+ALTER SEQUENCE student_change_sequence INCREMENT BY 1;
@@ -0,0 +1,25 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.DemoApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(String database, String... properties) {
+        return new SpringApplicationBuilder(DemoApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1",
+                        "spring.datasource.username=sa",
+                        "spring.jpa.show-sql=false",
+                        "student.seed.enabled=false",
+                        "logging.level.root=WARN")
+                .properties(properties)
+                .run();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.student.Student;
+import com.example.demo.student.StudentAge;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class StudentAgeBenchmark {
+
+    @Param({"100000"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private List<Student> students;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        students = LongStream.range(0, size)
+                .mapToObj(i -> new Student(
+                        i,
+                        "Student " + i,
+                        "student" + i + "@example.com",
+                        LocalDate.of(1990, 1, 1).plusDays(i % 7300)))
+                .toList();
+    }
+
+    @Benchmark
+    public int periodPerRow() {
+        int total = 0;
+        for (Student student : students) {
+            total += Period.between(student.getDob(), LocalDate.now()).getYears();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public int referenceDatePerResponse() {
+        LocalDate today = LocalDate.now();
+        int total = 0;
+        for (Student student : students) {
+            total += StudentAge.of(student.getDob(), today);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public byte[] serializeWithAgePerRow() throws JsonProcessingException {
+        students.forEach(student -> student.setAge(null));
+        return objectMapper.writeValueAsBytes(students);
+    }
+
+    @Benchmark
+    public byte[] serializeWithAgePerResponse() throws JsonProcessingException {
+        LocalDate today = LocalDate.now();
+        students.forEach(student -> student.setAge(StudentAge.of(student.getDob(), today)));
+        return objectMapper.writeValueAsBytes(students);
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.student.Student;
+import com.example.demo.student.StudentRepository;
+import com.example.demo.student.StudentView;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// Compares loading a page as managed entities (dirty-checked on commit),
+// as read-only entities, and as StudentView projections.
+// Run with -prof gc to see the allocation difference.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class StudentProjectionBenchmark {
+
+    private static final int STUDENTS = 100_000;
+
+    @Param({"100", "1000"})
+    public int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private StudentRepository studentRepository;
+    private EntityManager entityManager;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("student-projection-benchmark");
+        studentRepository = context.getBean(StudentRepository.class);
+        entityManager = context.getBean(EntityManager.class);
+
+        PlatformTransactionManager transactionManager =
+                context.getBean(PlatformTransactionManager.class);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        List<Student> students = IntStream.range(0, STUDENTS)
+                .mapToObj(i -> new Student(
+                        "Student " + i,
+                        "student" + i + "@example.com",
+                        LocalDate.of(2000, 1, 1).plusDays(i % 3650)))
+                .toList();
+        readWrite.executeWithoutResult(status -> studentRepository.saveAll(students));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Student> entitiesReadWrite() {
+        return readWrite.execute(status -> findEntities());
+    }
+
+    @Benchmark
+    public List<Student> entitiesReadOnly() {
+        return readOnly.execute(status -> findEntities());
+    }
+
+    @Benchmark
+    public List<StudentView> views() {
+        return readOnly.execute(status -> studentRepository.findStudentViewsAfter(
+                0L, PageRequest.ofSize(pageSize)));
+    }
+
+    private List<Student> findEntities() {
+        return entityManager
+                .createQuery("SELECT s FROM Student s WHERE s.id > 0 ORDER BY s.id", Student.class)
+                .setMaxResults(pageSize)
+                .getResultList();
+    }
+}
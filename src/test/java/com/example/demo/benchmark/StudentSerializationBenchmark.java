@@ -0,0 +1,60 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.student.StudentView;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class StudentSerializationBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private List<StudentView> students;
+
+    @Setup
+    public void setUp() {
+        // same settings Spring Boot applies to the MVC message converter
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        students = LongStream.range(0, size)
+                .mapToObj(i -> new StudentView(
+                        i,
+                        "Student " + i,
+                        "student" + i + "@example.com",
+                        LocalDate.of(2000, 1, 1).plusDays(i % 3650),
+                        24,
+                        0L))
+                .toList();
+    }
+
+    @Benchmark
+    public byte[] serializeStudents() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(students);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.student.Student;
+import com.example.demo.student.StudentPage;
+import com.example.demo.student.StudentRepository;
+import com.example.demo.student.StudentService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class StudentServiceBenchmark {
+
+    private static final int STUDENTS = 10_000;
+
+    private final AtomicLong registrations = new AtomicLong();
+
+    private ConfigurableApplicationContext context;
+    private StudentService studentService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("student-service-benchmark");
+        studentService = context.getBean(StudentService.class);
+
+        List<Student> students = IntStream.range(0, STUDENTS)
+                .mapToObj(i -> new Student(
+                        "Student " + i,
+                        "student" + i + "@example.com",
+                        LocalDate.of(2000, 1, 1).plusDays(i % 3650)))
+                .toList();
+        context.getBean(StudentRepository.class).saveAll(students);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public StudentPage getStudents() {
+        long after = ThreadLocalRandom.current().nextLong(STUDENTS);
+        return studentService.getStudents(after, 100);
+    }
+
+    @Benchmark
+    public void addNewStudent() {
+        long n = registrations.incrementAndGet();
+        studentService.addNewStudent(new Student(
+                "Registration " + n,
+                "registration" + n + "@example.com",
+                LocalDate.of(2000, 1, 1)));
+    }
+}
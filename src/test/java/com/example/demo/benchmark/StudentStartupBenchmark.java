@@ -0,0 +1,41 @@
+package com.example.demo.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Cold start to a refreshed context, including the Flyway migration and schema
+// validation. Every fork is a fresh JVM, so the single shot is a real cold start.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(5)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+public class StudentStartupBenchmark {
+
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    @Param({"false", "true"})
+    public boolean lazyInitialization;
+
+    @Benchmark
+    public long startup() {
+        try (ConfigurableApplicationContext context = BenchmarkApplication.start(
+                "student-startup-benchmark-" + DATABASES.incrementAndGet(),
+                "spring.main.lazy-initialization=" + lazyInitialization)) {
+            return context.getStartupDate();
+        }
+    }
+}
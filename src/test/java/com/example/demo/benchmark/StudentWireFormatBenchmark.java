@@ -0,0 +1,85 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.student.StudentView;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import java.util.zip.GZIPOutputStream;
+
+// Serialization cost per wire format for the full 100k student list, with and
+// without gzip. Payload sizes are printed once per trial.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class StudentWireFormatBenchmark {
+
+    private static final int STUDENTS = 100_000;
+
+    @Param({"json", "smile", "cbor"})
+    public String format;
+
+    @Param({"false", "true"})
+    public boolean gzip;
+
+    private ObjectMapper objectMapper;
+    private List<StudentView> students;
+
+    @Setup
+    public void setUp() throws IOException {
+        JsonFactory factory = switch (format) {
+            case "smile" -> new SmileFactory();
+            case "cbor" -> new CBORFactory();
+            default -> new JsonFactory();
+        };
+        // same settings Spring Boot applies to the MVC message converters
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .factory(factory)
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        students = LongStream.range(0, STUDENTS)
+                .mapToObj(i -> new StudentView(
+                        i,
+                        "Student " + i,
+                        "student" + i + "@example.com",
+                        LocalDate.of(2000, 1, 1).plusDays(i % 3650),
+                        24,
+                        0L))
+                .toList();
+
+        System.out.printf("%n%s%s payload: %,d bytes%n", format, gzip ? "+gzip" : "", serialize().length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(8 * 1024 * 1024);
+        try (OutputStream out = gzip ? new GZIPOutputStream(bytes, 64 * 1024) : bytes) {
+            objectMapper.writeValue(out, students);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.demo.jdbc;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MeteredDataSourceTest {
+
+    private SimpleMeterRegistry registry;
+    private MeteredDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:metered;DB_CLOSE_DELAY=-1");
+        registry = new SimpleMeterRegistry();
+        dataSource = new MeteredDataSource(h2, registry, 0);
+    }
+
+    @Test
+    void itShouldTimeStatementsByOperationAndCountThemInScope() throws Exception {
+        // Given
+        StatementCounter.begin();
+
+        // When
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS t (id INT)");
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO t VALUES (?)")) {
+                insert.setInt(1, 1);
+                insert.executeUpdate();
+            }
+            try (PreparedStatement select = connection.prepareStatement("  select * from t")) {
+                select.executeQuery().close();
+            }
+        }
+        int statements = StatementCounter.end();
+
+        // Then
+        assertThat(statements).isEqualTo(3);
+        assertThat(registry.get(MeteredDataSource.METRIC_NAME).tag("operation", "insert").timer().count())
+                .isEqualTo(1);
+        assertThat(registry.get(MeteredDataSource.METRIC_NAME).tag("operation", "select").timer().count())
+                .isEqualTo(1);
+        assertThat(registry.get(MeteredDataSource.METRIC_NAME).tag("operation", "other").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void itShouldNotCountOutsideAScope() throws Exception {
+        // When
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.executeQuery("SELECT 1").close();
+        }
+
+        // Then
+        assertThat(StatementCounter.isActive()).isFalse();
+        assertThat(StatementCounter.current()).isZero();
+    }
+
+    @Test
+    void itShouldUnwrapToTheTargetDataSource() throws Exception {
+        assertThat(dataSource.isWrapperFor(JdbcDataSource.class)).isTrue();
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.demo.jdbc;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReadReplicaRoutingDataSourceTest {
+
+    private JdbcDataSource primary;
+    private JdbcDataSource replica1;
+    private JdbcDataSource replica2;
+
+    @BeforeEach
+    void setUp() {
+        primary = node("primary");
+        replica1 = node("replica1");
+        replica2 = node("replica2");
+    }
+
+    @AfterEach
+    void tearDown() {
+        // a failed test must not leave its request scope on the thread
+        new ReplicaStickiness(Duration.ZERO).end();
+    }
+
+    @Test
+    void itShouldRouteReadOnlyTransactionsToTheReplica() {
+        // Given
+        Routing routing = routing(Duration.ofMinutes(1), replica1);
+
+        // When
+        String read = routing.read();
+        String written = routing.write();
+
+        // Then
+        assertThat(read).isEqualTo("replica1");
+        assertThat(written).isEqualTo("primary");
+        assertThat(routing.jdbc.queryForObject("SELECT name FROM node", String.class))
+                .as("outside a transaction")
+                .isEqualTo("primary");
+    }
+
+    @Test
+    void itShouldSpreadReadsOverAllReplicas() {
+        // Given
+        Routing routing = routing(Duration.ofMinutes(1), replica1, replica2);
+
+        // When
+        List<String> reads = List.of(routing.read(), routing.read(), routing.read(), routing.read());
+
+        // Then
+        assertThat(reads).containsExactly("replica1", "replica2", "replica1", "replica2");
+    }
+
+    @Test
+    void itShouldReadFromThePrimaryAfterTheClientWrote() {
+        // Given
+        Routing routing = routing(Duration.ofMinutes(1), replica1);
+
+        // When
+        routing.stickiness.begin("client-a");
+        routing.write();
+        String sameRequest = routing.read();
+        routing.stickiness.end();
+
+        routing.stickiness.begin("client-a");
+        String nextRequest = routing.read();
+        routing.stickiness.end();
+
+        routing.stickiness.begin("client-b");
+        String otherClient = routing.read();
+        routing.stickiness.end();
+
+        // Then
+        assertThat(sameRequest).isEqualTo("primary");
+        assertThat(nextRequest).isEqualTo("primary");
+        assertThat(otherClient).isEqualTo("replica1");
+    }
+
+    @Test
+    void itShouldGoBackToTheReplicaOnceTheWindowPassed() {
+        // Given
+        Routing routing = routing(Duration.ZERO, replica1);
+        routing.stickiness.begin("client-a");
+        routing.write();
+        routing.stickiness.end();
+
+        // When
+        routing.stickiness.begin("client-a");
+        String read = routing.read();
+        routing.stickiness.end();
+
+        // Then
+        assertThat(read).isEqualTo("replica1");
+    }
+
+    private Routing routing(Duration stickyWindow, JdbcDataSource... replicas) {
+        ReplicaStickiness stickiness = new ReplicaStickiness(stickyWindow);
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(
+                new ReadReplicaRoutingDataSource(primary, List.of(replicas), stickiness));
+        return new Routing(stickiness, new JdbcTemplate(dataSource),
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+    }
+
+    // each database knows its own name, so a query shows where it was routed
+    private static JdbcDataSource node(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("DROP TABLE IF EXISTS node");
+        jdbc.execute("CREATE TABLE node (name VARCHAR(20))");
+        jdbc.update("INSERT INTO node VALUES (?)", name);
+        return dataSource;
+    }
+
+    private record Routing(ReplicaStickiness stickiness, JdbcTemplate jdbc, TransactionTemplate transactions) {
+
+        String read() {
+            transactions.setReadOnly(true);
+            return transactions.execute(status -> jdbc.queryForObject("SELECT name FROM node", String.class));
+        }
+
+        String write() {
+            transactions.setReadOnly(false);
+            return transactions.execute(status -> {
+                jdbc.update("UPDATE node SET name = name");
+                return jdbc.queryForObject("SELECT name FROM node", String.class);
+            });
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.demo.jdbc;
+
+import com.example.demo.web.ClientIdentity;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReplicaStickinessFilterTest {
+
+    private static final Duration WINDOW = Duration.ofSeconds(5);
+
+    @Test
+    void itShouldHandAWritingClientACookieForItsStickyWindow() throws Exception {
+        // Given
+        ReplicaStickiness stickiness = new ReplicaStickiness(WINDOW);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        long before = System.currentTimeMillis();
+
+        // When
+        filter(stickiness).doFilter(new MockHttpServletRequest("POST", "/api/v1/student"), response,
+                (request, ignored) -> stickiness.recordWrite());
+
+        // Then
+        Cookie cookie = response.getCookie(ReplicaStickinessFilter.READ_PRIMARY_COOKIE);
+        assertThat(cookie).isNotNull();
+        assertThat(Long.parseLong(cookie.getValue())).isBetween(
+                before + WINDOW.toMillis(), System.currentTimeMillis() + WINDOW.toMillis());
+        assertThat(cookie.getMaxAge()).isEqualTo(5);
+    }
+
+    @Test
+    void itShouldReadFromThePrimaryOnAnyInstanceWithinTheWindow() throws Exception {
+        // Given - an instance that never saw the write, reached from another address
+        ReplicaStickiness otherInstance = new ReplicaStickiness(WINDOW);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/student");
+        request.setRemoteAddr("10.0.0.9");
+        request.setCookies(new Cookie(ReplicaStickinessFilter.READ_PRIMARY_COOKIE,
+                Long.toString(System.currentTimeMillis() + 2_000)));
+        AtomicBoolean primary = new AtomicBoolean();
+
+        // When
+        filter(otherInstance).doFilter(request, new MockHttpServletResponse(),
+                (ignored, response) -> primary.set(otherInstance.mustReadPrimary()));
+
+        // Then
+        assertThat(primary).isTrue();
+    }
+
+    @Test
+    void itShouldIgnoreExpiredOrMadeUpCookies() throws Exception {
+        // Given
+        ReplicaStickiness stickiness = new ReplicaStickiness(WINDOW);
+        AtomicBoolean expired = new AtomicBoolean();
+        AtomicBoolean madeUp = new AtomicBoolean();
+
+        // When
+        filter(stickiness).doFilter(read(System.currentTimeMillis() - 1), new MockHttpServletResponse(),
+                (request, response) -> expired.set(stickiness.mustReadPrimary()));
+        filter(stickiness).doFilter(read(Long.MAX_VALUE), new MockHttpServletResponse(),
+                (request, response) -> madeUp.set(stickiness.mustReadPrimary()));
+
+        // Then
+        assertThat(expired).isFalse();
+        assertThat(madeUp).isFalse();
+    }
+
+    private static MockHttpServletRequest read(long readPrimaryUntil) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/student");
+        request.setCookies(new Cookie(ReplicaStickinessFilter.READ_PRIMARY_COOKIE, Long.toString(readPrimaryUntil)));
+        return request;
+    }
+
+    private static ReplicaStickinessFilter filter(ReplicaStickiness stickiness) {
+        return new ReplicaStickinessFilter(stickiness, new ClientIdentity(false));
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.demo.jdbc;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class StatementBudgetAspectTest {
+
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void itShouldPassWithinBudget() {
+        // Given
+        Repository repository = proxy(StatementBudgetAspect.Mode.ENFORCE);
+
+        // When
+        repository.run(2);
+
+        // Then
+        assertThat(registry.find(StatementBudgetAspect.METRIC_NAME).counter()).isNull();
+    }
+
+    @Test
+    void itShouldThrowOverBudgetWhenEnforced() {
+        // Given
+        Repository repository = proxy(StatementBudgetAspect.Mode.ENFORCE);
+
+        // When / Then
+        assertThatThrownBy(() -> repository.run(3))
+                .isInstanceOf(StatementBudgetExceededException.class)
+                .hasMessageContaining("executed 3 statements, budget is 2");
+        assertThat(StatementCounter.isActive()).isFalse();
+    }
+
+    @Test
+    void itShouldCountOverBudgetWhenLogging() {
+        // Given
+        Repository repository = proxy(StatementBudgetAspect.Mode.LOG);
+
+        // When
+        repository.run(5);
+
+        // Then
+        assertThat(registry.get(StatementBudgetAspect.METRIC_NAME).counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void itShouldMeasureOnlyTheMethodInsideAnOpenRequestScope() {
+        // Given
+        Repository repository = proxy(StatementBudgetAspect.Mode.ENFORCE);
+        StatementCounter.begin();
+        StatementCounter.increment();
+        StatementCounter.increment();
+
+        // When
+        repository.run(2);
+
+        // Then
+        assertThat(StatementCounter.end()).isEqualTo(4);
+    }
+
+    private Repository proxy(StatementBudgetAspect.Mode mode) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(new Repository());
+        factory.addAspect(new StatementBudgetAspect(registry, mode));
+        return factory.getProxy();
+    }
+
+    static class Repository {
+
+        @StatementBudget(2)
+        public void run(int statements) {
+            for (int i = 0; i < statements; i++) {
+                StatementCounter.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.demo.jdbc;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StatementCountFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void itShouldExposeCountBeforeTheBodyIsWritten() throws Exception {
+        // Given
+        StatementCountFilter filter = new StatementCountFilter(registry, true);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/student/1");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v1/student/{studentId}");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                StatementCounter.increment();
+                StatementCounter.increment();
+                resp.getWriter().write("{}");
+                resp.flushBuffer();
+                StatementCounter.increment();
+            }
+        }));
+
+        // Then
+        assertThat(response.getHeader(StatementCountFilter.STATEMENT_COUNT_HEADER)).isEqualTo("2");
+        assertThat(registry.get(StatementCountFilter.METRIC_NAME)
+                .tag("uri", "/api/v1/student/{studentId}")
+                .summary().totalAmount()).isEqualTo(3);
+        assertThat(StatementCounter.isActive()).isFalse();
+    }
+
+    @Test
+    void itShouldExposeCountForEmptyResponses() throws Exception {
+        // Given
+        StatementCountFilter filter = new StatementCountFilter(registry, true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(new MockHttpServletRequest("DELETE", "/api/v1/student/1"), response,
+                new MockFilterChain(new HttpServlet() {
+                    @Override
+                    protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                        StatementCounter.increment();
+                    }
+                }));
+
+        // Then
+        assertThat(response.getHeader(StatementCountFilter.STATEMENT_COUNT_HEADER)).isEqualTo("1");
+    }
+
+    @Test
+    void itShouldNotExposeCountByDefault() throws Exception {
+        // Given
+        StatementCountFilter filter = new StatementCountFilter(registry, false);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/student"), response, new MockFilterChain());
+
+        // Then
+        assertThat(response.getHeader(StatementCountFilter.STATEMENT_COUNT_HEADER)).isNull();
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.demo.loadtest;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Closed-loop HTTP load generator: each of {@code concurrency} virtual
+ * threads sends its next request as soon as the previous one completes.
+ */
+public class LoadDriver implements AutoCloseable {
+
+    private final HttpClient client;
+    private final ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+
+    public LoadDriver() {
+        this.client = HttpClient.newBuilder()
+                .executor(workers)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    public LoadReport run(String name,
+                          int concurrency,
+                          Duration duration,
+                          Supplier<HttpRequest> requests) throws Exception {
+        return runMix(name, concurrency, duration, List.of(new Operation(name, 1, requests))).get(0);
+    }
+
+    /**
+     * Each client picks its next request among {@code operations} by weight.
+     * The first report covers the whole run, the others one operation each.
+     */
+    public List<LoadReport> runMix(String name,
+                                   int concurrency,
+                                   Duration duration,
+                                   List<Operation> operations) throws Exception {
+        int totalWeight = operations.stream().mapToInt(Operation::weight).sum();
+        AtomicLongArray errors = new AtomicLongArray(operations.size());
+        long startedAt = System.nanoTime();
+        long deadline = startedAt + duration.toNanos();
+
+        List<Future<LatencyLog[]>> clients = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            clients.add(workers.submit(() -> {
+                LatencyLog[] logs = new LatencyLog[operations.size()];
+                Arrays.setAll(logs, op -> new LatencyLog());
+                while (System.nanoTime() < deadline) {
+                    int op = pick(operations, ThreadLocalRandom.current().nextInt(totalWeight));
+                    long sentAt = System.nanoTime();
+                    if (!send(operations.get(op).requests().get())) {
+                        errors.incrementAndGet(op);
+                    }
+                    logs[op].add(System.nanoTime() - sentAt);
+                }
+                return logs;
+            }));
+        }
+
+        LatencyLog all = new LatencyLog();
+        LatencyLog[] byOperation = new LatencyLog[operations.size()];
+        Arrays.setAll(byOperation, op -> new LatencyLog());
+        for (Future<LatencyLog[]> client : clients) {
+            LatencyLog[] logs = client.get();
+            for (int op = 0; op < logs.length; op++) {
+                all.addAll(logs[op]);
+                byOperation[op].addAll(logs[op]);
+            }
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - startedAt);
+
+        List<LoadReport> reports = new ArrayList<>(operations.size() + 1);
+        long totalErrors = 0;
+        for (int op = 0; op < operations.size(); op++) {
+            totalErrors += errors.get(op);
+        }
+        reports.add(new LoadReport(name, all.size(), totalErrors, elapsed, all.toArray()));
+        if (operations.size() > 1) {
+            for (int op = 0; op < operations.size(); op++) {
+                reports.add(new LoadReport("  " + operations.get(op).name(),
+                        byOperation[op].size(), errors.get(op), elapsed, byOperation[op].toArray()));
+            }
+        }
+        return reports;
+    }
+
+    private static int pick(List<Operation> operations, int ticket) {
+        for (int op = 0; op < operations.size(); op++) {
+            ticket -= operations.get(op).weight();
+            if (ticket < 0) {
+                return op;
+            }
+        }
+        return operations.size() - 1;
+    }
+
+    private boolean send(HttpRequest request) {
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            return response.statusCode() < 400;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        workers.shutdownNow();
+    }
+
+    /** One kind of request in a mix, sent {@code weight} times out of the total weight. */
+    public record Operation(String name, int weight, Supplier<HttpRequest> requests) {
+    }
+
+    private static final class LatencyLog {
+        private long[] values = new long[1024];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void addAll(LatencyLog other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.values[i]);
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
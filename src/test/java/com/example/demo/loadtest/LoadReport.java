@@ -0,0 +1,39 @@
+package com.example.demo.loadtest;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+public record LoadReport(String name,
+                         long requests,
+                         long errors,
+                         Duration elapsed,
+                         long[] latenciesNanos) {
+
+    public double throughput() {
+        return requests / (elapsed.toNanos() / 1_000_000_000.0);
+    }
+
+    public double percentileMillis(double percentile) {
+        if (latenciesNanos.length == 0) {
+            return 0;
+        }
+        long[] sorted = latenciesNanos.clone();
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1_000_000.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "%-28s %9d req %7d err %10.1f req/s   p50 %8.2f ms   p95 %8.2f ms   p99 %8.2f ms   max %8.2f ms",
+                name,
+                requests,
+                errors,
+                throughput(),
+                percentileMillis(50),
+                percentileMillis(95),
+                percentileMillis(99),
+                percentileMillis(100));
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.demo.loadtest;
+
+import com.example.demo.DemoApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives a read-heavy mix over the StudentController endpoints against an
+ * embedded H2 database filled by the data-generator profile, and writes
+ * throughput and latency percentiles per endpoint to
+ * {@code target/load-test/student-api.txt}. Run with {@code ./mvnw -Pload-test test};
+ * {@code -Dstudent.generator.count}, {@code -Dload.concurrency} and
+ * {@code -Dload.duration} (ISO-8601) size the run.
+ */
+@Tag("load")
+public class StudentApiLoadTest {
+
+    private static final int STUDENTS = Integer.getInteger("student.generator.count", 200_000);
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 64);
+    private static final Duration WARM_UP = Duration.ofSeconds(5);
+    private static final Duration MEASUREMENT = Duration.parse(System.getProperty("load.duration", "PT30S"));
+    private static final int SAMPLE = 20_000;
+    private static final Path REPORT = Path.of("target", "load-test", "student-api.txt");
+    private static final List<String> NAME_PREFIXES = List.of("ad", "be", "car", "di", "em", "gr", "ju", "ma", "om", "zo");
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // reads only, never changed, so by-email lookups always hit
+    private final List<Long> stableIds = new ArrayList<>();
+    private final List<String> stableEmails = new ArrayList<>();
+    // targets of PUT, PATCH and bulk-update
+    private final List<Long> mutableIds = new ArrayList<>();
+    // each handed out once, to DELETE or bulk-delete
+    private final Queue<Long> deletableIds = new ConcurrentLinkedQueue<>();
+
+    @Test
+    void measureTheStudentApiUnderAMixedLoad() throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(DemoApplication.class)
+                .profiles("data-generator")
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:student-api-load;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.username=sa",
+                        "spring.jpa.show-sql=false",
+                        "student.generator.count=" + STUDENTS,
+                        // one client on purpose, measure the endpoints not the limiters
+                        "student.rate-limit.enabled=false",
+                        "student.web.adaptive-limit.enabled=false")
+                .run();
+             LoadDriver driver = new LoadDriver()) {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+                    + "/api/v1/student";
+            sample(baseUrl);
+            List<LoadDriver.Operation> mix = mix(baseUrl);
+
+            driver.runMix("warm-up", CONCURRENCY, WARM_UP, mix);
+            List<LoadReport> reports = driver.runMix("student api", CONCURRENCY, MEASUREMENT, mix);
+
+            String report = String.format("%,d students, %d clients, %s%n", STUDENTS, CONCURRENCY, MEASUREMENT)
+                    + reports.stream().map(LoadReport::toString).collect(Collectors.joining(System.lineSeparator()))
+                    + System.lineSeparator();
+            Files.createDirectories(REPORT.getParent());
+            Files.writeString(REPORT, report);
+            System.out.print(report);
+
+            LoadReport total = reports.get(0);
+            assertThat(total.requests()).isPositive();
+            assertThat(total.errors()).isLessThan(Math.max(1, total.requests() / 100));
+        }
+    }
+
+    private List<LoadDriver.Operation> mix(String baseUrl) {
+        return List.of(
+                new LoadDriver.Operation("GET list", 150, () -> get(baseUrl
+                        + "?limit=50&after=" + any(stableIds))),
+                new LoadDriver.Operation("GET search name", 120, () -> get(baseUrl
+                        + "/search?sort=name&limit=20&namePrefix=" + any(NAME_PREFIXES))),
+                new LoadDriver.Operation("GET search domain", 60, () -> get(baseUrl
+                        + "/search?limit=20&emailDomain=class" + (2000 + random().nextInt(25)) + ".example.edu")),
+                new LoadDriver.Operation("GET search age", 60, () -> {
+                    int minAge = 16 + random().nextInt(40);
+                    return get(baseUrl + "/search?sort=dob&limit=20&minAge=" + minAge + "&maxAge=" + (minAge + 2));
+                }),
+                new LoadDriver.Operation("GET by id", 250, () -> get(baseUrl
+                        + "/" + (random().nextBoolean() ? any(stableIds) : any(mutableIds)))),
+                new LoadDriver.Operation("GET by email", 150, () -> get(baseUrl
+                        + "?email=" + URLEncoder.encode(any(stableEmails), StandardCharsets.UTF_8))),
+                new LoadDriver.Operation("GET stream", 1, () -> HttpRequest.newBuilder(URI.create(baseUrl + "?stream=true"))
+                        .header("Accept", "application/x-ndjson")
+                        .build()),
+                new LoadDriver.Operation("POST register", 60, () -> HttpRequest.newBuilder(URI.create(baseUrl))
+                        .header("Content-Type", "application/json")
+                        .header("Idempotency-Key", UUID.randomUUID().toString())
+                        .POST(HttpRequest.BodyPublishers.ofString(newStudentJson()))
+                        .build()),
+                new LoadDriver.Operation("PUT update", 40, () -> HttpRequest.newBuilder(URI.create(baseUrl
+                                + "/" + any(mutableIds) + "?name=Renamed%20" + random().nextInt(1000)))
+                        .PUT(HttpRequest.BodyPublishers.noBody())
+                        .build()),
+                new LoadDriver.Operation("PATCH", 40, () -> HttpRequest.newBuilder(URI.create(baseUrl + "/" + any(mutableIds)))
+                        .header("Content-Type", "application/merge-patch+json")
+                        .method("PATCH", HttpRequest.BodyPublishers.ofString(
+                                "{\"name\":\"Patched " + random().nextInt(1000) + "\"}"))
+                        .build()),
+                new LoadDriver.Operation("DELETE", 20, () -> {
+                    Long id = deletableIds.poll();
+                    return id == null
+                            ? get(baseUrl + "/" + any(stableIds))
+                            : HttpRequest.newBuilder(URI.create(baseUrl + "/" + id)).DELETE().build();
+                }),
+                new LoadDriver.Operation("POST import", 10, () -> HttpRequest.newBuilder(URI.create(baseUrl + "/import"))
+                        .header("Content-Type", "text/csv")
+                        .POST(HttpRequest.BodyPublishers.ofString(importCsv(20)))
+                        .build()),
+                new LoadDriver.Operation("POST bulk-update", 5, () -> post(baseUrl + "/bulk-update",
+                        "{\"ids\":" + ids(IntStream.range(0, 20).mapToObj(i -> any(mutableIds)).toList())
+                                + ",\"newEmailDomain\":\"alumni" + random().nextInt(5) + ".example.edu\"}")),
+                new LoadDriver.Operation("POST bulk-delete", 5, () -> {
+                    List<Long> ids = new ArrayList<>();
+                    for (Long id; ids.size() < 20 && (id = deletableIds.poll()) != null; ) {
+                        ids.add(id);
+                    }
+                    return ids.isEmpty()
+                            ? get(baseUrl + "/" + any(stableIds))
+                            : post(baseUrl + "/bulk-delete", "{\"ids\":" + ids(ids) + "}");
+                }));
+    }
+
+    // pages through the table once and splits a sample of students into the pools
+    private void sample(String baseUrl) throws Exception {
+        long stride = Math.max(1, STUDENTS / SAMPLE);
+        long after = 0;
+        int seen = 0;
+        List<JsonNode> sampled = new ArrayList<>();
+        while (true) {
+            HttpResponse<String> response = client.send(get(baseUrl + "?limit=1000&after=" + after),
+                    HttpResponse.BodyHandlers.ofString());
+            assertThat(response.statusCode()).isEqualTo(200);
+            JsonNode page = objectMapper.readTree(response.body());
+            if (page.isEmpty()) {
+                break;
+            }
+            for (JsonNode student : page) {
+                if (seen++ % stride == 0) {
+                    sampled.add(student);
+                }
+                after = student.get("id").asLong();
+            }
+        }
+
+        for (int i = 0; i < sampled.size(); i++) {
+            JsonNode student = sampled.get(i);
+            long id = student.get("id").asLong();
+            switch (i % 10) {
+                case 0, 1, 2, 3, 4 -> {
+                    stableIds.add(id);
+                    stableEmails.add(student.get("email").asText());
+                }
+                case 9 -> deletableIds.add(id);
+                default -> mutableIds.add(id);
+            }
+        }
+        assertThat(stableIds).isNotEmpty();
+        assertThat(mutableIds).isNotEmpty();
+    }
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+    }
+
+    private static HttpRequest post(String url, String json) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private static String newStudentJson() {
+        return "{\"name\":\"Load " + random().nextInt(1000) + "\","
+                + "\"email\":\"" + UUID.randomUUID() + "@load.example.com\","
+                + "\"dob\":\"" + (1970 + random().nextInt(35)) + "-06-15\"}";
+    }
+
+    private static String importCsv(int rows) {
+        StringBuilder csv = new StringBuilder("name,email,dob\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append("Imported ").append(i)
+                    .append(',').append(UUID.randomUUID()).append("@import.example.com")
+                    .append(",1999-09-09\n");
+        }
+        return csv.toString();
+    }
+
+    private static String ids(List<Long> ids) {
+        return ids.stream().map(String::valueOf).collect(Collectors.joining(",", "[", "]"));
+    }
+
+    private static <T> T any(List<T> values) {
+        return values.get(random().nextInt(values.size()));
+    }
+
+    private static ThreadLocalRandom random() {
+        return ThreadLocalRandom.current();
+    }
+}
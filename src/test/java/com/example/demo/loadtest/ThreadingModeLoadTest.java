@@ -0,0 +1,86 @@
+package com.example.demo.loadtest;
+
+import com.example.demo.DemoApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the platform-thread and virtual-thread request execution modes
+ * under the same closed-loop load. Run with {@code ./mvnw -Pload-test test}.
+ */
+@Tag("load")
+public class ThreadingModeLoadTest {
+
+    private static final int STUDENTS = 2_000;
+    private static final int CONCURRENCY = 400;
+    private static final Duration WARM_UP = Duration.ofSeconds(3);
+    private static final Duration MEASUREMENT = Duration.ofSeconds(10);
+
+    @Test
+    void compareThroughputAndLatencyOfThreadingModes() throws Exception {
+        LoadReport platform = measure(false);
+        LoadReport virtual = measure(true);
+
+        System.out.println(platform);
+        System.out.println(virtual);
+
+        assertThat(platform.requests()).isPositive();
+        assertThat(virtual.requests()).isPositive();
+    }
+
+    private LoadReport measure(boolean virtualThreads) throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(DemoApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:load-" + mode + ";DB_CLOSE_DELAY=-1",
+                        "spring.datasource.username=sa",
+                        "spring.jpa.show-sql=false",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        // one client hammering the API on purpose, measure threading not the limiters
+                        "student.rate-limit.enabled=false",
+                        "student.web.adaptive-limit.enabled=false")
+                .run();
+             LoadDriver driver = new LoadDriver()) {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            seed(baseUrl);
+
+            driver.run(mode + " warm-up", CONCURRENCY, WARM_UP, () -> listPage(baseUrl));
+            return driver.run(mode + " threads", CONCURRENCY, MEASUREMENT, () -> listPage(baseUrl));
+        }
+    }
+
+    private static HttpRequest listPage(String baseUrl) {
+        long after = ThreadLocalRandom.current().nextLong(STUDENTS);
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/student?limit=20&after=" + after))
+                .GET()
+                .build();
+    }
+
+    private static void seed(String baseUrl) throws Exception {
+        StringBuilder csv = new StringBuilder("name,email,dob\n");
+        for (int i = 0; i < STUDENTS; i++) {
+            csv.append("Load ").append(i)
+                    .append(",load").append(i).append("@example.com")
+                    .append(",2000-01-01\n");
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/student/import"))
+                .header("Content-Type", "text/csv")
+                .POST(HttpRequest.BodyPublishers.ofString(csv.toString()))
+                .build();
+        HttpResponse<Void> response = HttpClient.newHttpClient()
+                .send(request, HttpResponse.BodyHandlers.discarding());
+        assertThat(response.statusCode()).isEqualTo(200);
+    }
+}
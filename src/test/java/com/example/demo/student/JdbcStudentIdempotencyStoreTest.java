@@ -0,0 +1,128 @@
+package com.example.demo.student;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+public class JdbcStudentIdempotencyStoreTest {
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    private JdbcStudentIdempotencyStore underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new JdbcStudentIdempotencyStore(jdbcTemplate, new ObjectMapper(), Duration.ofHours(1), Duration.ofMinutes(1));
+    }
+
+    @Test
+    void itShouldLetOnlyTheFirstCallerClaimAKey() {
+        // When
+        Optional<StudentIdempotencyRecord> first = underTest.putIfAbsent(
+                "key-1", StudentIdempotencyRecord.inProgress("a"));
+        Optional<StudentIdempotencyRecord> second = underTest.putIfAbsent(
+                "key-1", StudentIdempotencyRecord.inProgress("a"));
+
+        // Then
+        assertThat(first).isEmpty();
+        assertThat(second).hasValueSatisfying(record -> {
+            assertThat(record.isComplete()).isFalse();
+            assertThat(record.fingerprint()).isEqualTo("a");
+        });
+    }
+
+    @Test
+    void itShouldReturnTheCompletedRegistration() {
+        // Given
+        StudentRegistration registration = new StudentRegistration(
+                UUID.randomUUID(), StudentRegistration.State.PENDING, null, null);
+        underTest.putIfAbsent("key-2", StudentIdempotencyRecord.inProgress("a"));
+        underTest.complete("key-2", new StudentIdempotencyRecord(
+                "a", 202, "http://localhost/api/v1/student/registrations/" + registration.id(), registration));
+
+        // When
+        Optional<StudentIdempotencyRecord> stored = underTest.putIfAbsent(
+                "key-2", StudentIdempotencyRecord.inProgress("a"));
+
+        // Then
+        assertThat(stored).hasValueSatisfying(record -> {
+            assertThat(record.status()).isEqualTo(202);
+            assertThat(record.location()).endsWith(registration.id().toString());
+            assertThat(record.registration()).isEqualTo(registration);
+        });
+    }
+
+    @Test
+    void itShouldReleaseARemovedKey() {
+        // Given
+        underTest.putIfAbsent("key-3", StudentIdempotencyRecord.inProgress("a"));
+        underTest.remove("key-3");
+
+        // When
+        Optional<StudentIdempotencyRecord> claimed = underTest.putIfAbsent(
+                "key-3", StudentIdempotencyRecord.inProgress("a"));
+
+        // Then
+        assertThat(claimed).isEmpty();
+    }
+
+    @Test
+    void itShouldTreatExpiredKeysAsNew() {
+        // Given
+        JdbcStudentIdempotencyStore expiring = new JdbcStudentIdempotencyStore(
+                jdbcTemplate, new ObjectMapper(), Duration.ZERO, Duration.ofMinutes(1));
+        expiring.putIfAbsent("key-4", StudentIdempotencyRecord.inProgress("a"));
+
+        // When
+        Optional<StudentIdempotencyRecord> claimed = expiring.putIfAbsent(
+                "key-4", StudentIdempotencyRecord.inProgress("a"));
+
+        // Then
+        assertThat(claimed).isEmpty();
+    }
+
+    @Test
+    void itShouldLetARetryTakeOverAnAbandonedClaim() {
+        // Given
+        JdbcStudentIdempotencyStore leasing = new JdbcStudentIdempotencyStore(
+                jdbcTemplate, new ObjectMapper(), Duration.ofHours(1), Duration.ZERO);
+        leasing.putIfAbsent("key-5", StudentIdempotencyRecord.inProgress("a"));
+
+        // When
+        Optional<StudentIdempotencyRecord> takenOver = leasing.putIfAbsent(
+                "key-5", StudentIdempotencyRecord.inProgress("a"));
+        Optional<StudentIdempotencyRecord> otherRequest = leasing.putIfAbsent(
+                "key-5", StudentIdempotencyRecord.inProgress("b"));
+
+        // Then
+        assertThat(takenOver).isEmpty();
+        assertThat(otherRequest).hasValueSatisfying(record -> assertThat(record.fingerprint()).isEqualTo("a"));
+    }
+
+    @Test
+    void itShouldNeverTakeOverACompletedKey() {
+        // Given
+        JdbcStudentIdempotencyStore leasing = new JdbcStudentIdempotencyStore(
+                jdbcTemplate, new ObjectMapper(), Duration.ofHours(1), Duration.ZERO);
+        leasing.putIfAbsent("key-6", StudentIdempotencyRecord.inProgress("a"));
+        leasing.complete("key-6", new StudentIdempotencyRecord("a", 202, null, null));
+
+        // When
+        Optional<StudentIdempotencyRecord> stored = leasing.putIfAbsent(
+                "key-6", StudentIdempotencyRecord.inProgress("a"));
+
+        // Then
+        assertThat(stored).hasValueSatisfying(record -> assertThat(record.status()).isEqualTo(202));
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.demo.student;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+public class JdbcStudentRegistrationStoreTest {
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Test
+    void itShouldAnswerStatusPollsOnAnotherInstance() {
+        // Given
+        JdbcStudentRegistrationStore accepting = new JdbcStudentRegistrationStore(jdbcTemplate, Duration.ofHours(1));
+        JdbcStudentRegistrationStore polled = new JdbcStudentRegistrationStore(jdbcTemplate, Duration.ofHours(1));
+        UUID registered = UUID.randomUUID();
+        UUID failed = UUID.randomUUID();
+        accepting.add(StudentRegistration.pending(registered));
+        accepting.add(StudentRegistration.pending(failed));
+
+        // When
+        accepting.update(List.of(
+                new StudentRegistration(registered, StudentRegistration.State.REGISTERED, 11L, null),
+                StudentRegistration.failed(failed, "x".repeat(5000))));
+
+        // Then
+        assertThat(polled.find(registered)).hasValue(
+                new StudentRegistration(registered, StudentRegistration.State.REGISTERED, 11L, null));
+        assertThat(polled.find(failed)).hasValueSatisfying(registration -> {
+            assertThat(registration.state()).isEqualTo(StudentRegistration.State.FAILED);
+            assertThat(registration.message()).hasSize(2048);
+        });
+    }
+
+    @Test
+    void itShouldForgetRemovedAndExpiredRegistrations() {
+        // Given
+        JdbcStudentRegistrationStore underTest = new JdbcStudentRegistrationStore(jdbcTemplate, Duration.ofHours(1));
+        JdbcStudentRegistrationStore expired = new JdbcStudentRegistrationStore(jdbcTemplate, Duration.ZERO);
+        UUID removed = UUID.randomUUID();
+        UUID old = UUID.randomUUID();
+        underTest.add(StudentRegistration.pending(removed));
+        underTest.add(StudentRegistration.pending(old));
+
+        // When
+        underTest.remove(removed);
+
+        // Then
+        assertThat(underTest.find(removed)).isEmpty();
+        assertThat(underTest.find(old)).isPresent();
+        assertThat(expired.find(old)).isEmpty();
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.demo.student;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LongObjectHashMapTest {
+
+    @Test
+    void itShouldPutGetAndRemove() {
+        // Given
+        LongObjectHashMap<String> map = new LongObjectHashMap<>(4);
+
+        // When
+        map.put(1L, "one");
+        map.put(-7L, "minus seven");
+        String replaced = map.put(1L, "uno");
+
+        // Then
+        assertThat(replaced).isEqualTo("one");
+        assertThat(map.get(1L)).isEqualTo("uno");
+        assertThat(map.get(-7L)).isEqualTo("minus seven");
+        assertThat(map.get(2L)).isNull();
+        assertThat(map.remove(-7L)).isEqualTo("minus seven");
+        assertThat(map.remove(-7L)).isNull();
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    @Test
+    void itShouldGrowAndClear() {
+        // Given
+        LongObjectHashMap<Long> map = new LongObjectHashMap<>(16);
+
+        // When
+        for (long key = 0; key < 10_000; key++) {
+            map.put(key, key);
+        }
+
+        // Then
+        assertThat(map.size()).isEqualTo(10_000);
+        assertThat(map.capacity()).isGreaterThanOrEqualTo(10_000 * 4 / 3);
+        assertThat(map.get(9_999L)).isEqualTo(9_999L);
+
+        // When
+        int capacity = map.capacity();
+        map.clear();
+
+        // Then
+        assertThat(map.size()).isZero();
+        assertThat(map.get(9_999L)).isNull();
+        assertThat(map.capacity()).isEqualTo(capacity);
+    }
+
+    @Test
+    void itShouldAgreeWithHashMapUnderRandomChurn() {
+        // Given - a small key space, so probe runs wrap and removals shift entries back
+        LongObjectHashMap<Long> map = new LongObjectHashMap<>(16);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        // When
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(64);
+            if (random.nextBoolean()) {
+                assertThat(map.put(key, (long) i)).isEqualTo(expected.put(key, (long) i));
+            } else {
+                assertThat(map.remove(key)).isEqualTo(expected.remove(key));
+            }
+        }
+
+        // Then
+        assertThat(map.size()).isEqualTo(expected.size());
+        expected.forEach((key, value) -> assertThat(map.get(key)).isEqualTo(value));
+        List<Long> values = new ArrayList<>();
+        map.forEachValue(values::add);
+        assertThat(values).containsExactlyInAnyOrderElementsOf(expected.values());
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.demo.student;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.time.LocalDate;
+import java.time.Period;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StudentAgeTest {
+
+    @ParameterizedTest
+    @CsvSource({
+            "2000-01-05, 2024-01-04",
+            "2000-01-05, 2024-01-05",
+            "2000-01-05, 2024-01-06",
+            "2000-02-29, 2001-02-28",
+            "2000-02-29, 2001-03-01",
+            "2000-02-29, 2004-02-29",
+            "2000-12-31, 2001-01-01",
+            "2024-06-15, 2024-06-15",
+            "2030-01-01, 2026-10-18",
+            "2026-10-19, 2026-10-18"
+    })
+    void itShouldMatchPeriodBetween(LocalDate dob, LocalDate referenceDate) {
+        assertThat(StudentAge.of(dob, referenceDate))
+                .isEqualTo(Period.between(dob, referenceDate).getYears());
+    }
+
+    @Test
+    void itShouldBeNullWithoutDateOfBirth() {
+        assertThat(StudentAge.of(null, LocalDate.of(2024, 1, 1))).isNull();
+    }
+}
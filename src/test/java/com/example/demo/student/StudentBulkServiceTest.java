@@ -0,0 +1,163 @@
+package com.example.demo.student;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = "student.bulk.chunk-size=500")
+@Import({StudentBulkService.class, StudentSearchRepository.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class StudentBulkServiceTest {
+
+    // clear of the ids the sequence hands out
+    private static final long FIRST_ID = 1_000_000;
+
+    @Autowired
+    private StudentBulkService studentBulkService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        studentRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void itShouldDeleteFiftyThousandStudentsAndReportTheMissingIds() {
+        // Given
+        insert(50_000, "class2024.example.edu");
+        List<Long> ids = new ArrayList<>(LongStream.range(FIRST_ID, FIRST_ID + 50_000).boxed().toList());
+        ids.addAll(List.of(42L, 43L, FIRST_ID));
+
+        // When
+        StudentBulkResult result = studentBulkService.deleteStudents(new StudentBulkRequest(ids, null, null));
+
+        // Then
+        assertThat(result.requested()).isEqualTo(50_002);
+        assertThat(result.affected()).isEqualTo(50_000);
+        assertThat(result.missingIds()).containsExactly(42L, 43L);
+        assertThat(studentRepository.count()).isZero();
+    }
+
+    @Test
+    void itShouldMoveFiftyThousandStudentsToANewDomain() {
+        // Given
+        insert(50_000, "class2024.example.edu");
+
+        // When
+        StudentBulkResult result = studentBulkService.updateEmailDomain(new StudentBulkRequest(
+                null,
+                new StudentBulkRequest.Filter(null, "Class2024.example.edu", null, null),
+                "Alumni.example.edu"));
+
+        // Then
+        assertThat(result.affected()).isEqualTo(50_000);
+        assertThat(result.missingIds()).isEmpty();
+        assertThat(result.skippedIds()).isEmpty();
+        assertThat(studentRepository.findStudentViewById(FIRST_ID + 7)).hasValueSatisfying(student -> {
+            assertThat(student.email()).isEqualTo("student7@Alumni.example.edu");
+            assertThat(student.version()).isEqualTo(1L);
+        });
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM student WHERE email_domain = 'alumni.example.edu'", Long.class))
+                .isEqualTo(50_000L);
+    }
+
+    @Test
+    void itShouldSplitAtTheLastAtAndReportEmailsWithoutOne() {
+        // Given
+        insert(3, "class2024.example.edu");
+        jdbcTemplate.update("UPDATE student SET email = '\"first@last\"@Class2024.example.edu' WHERE id = ?",
+                FIRST_ID + 1);
+        jdbcTemplate.update("UPDATE student SET email = 'no-at-sign', email_domain = NULL WHERE id = ?",
+                FIRST_ID + 2);
+
+        // When
+        StudentBulkResult result = studentBulkService.updateEmailDomain(new StudentBulkRequest(
+                List.of(FIRST_ID, FIRST_ID + 1, FIRST_ID + 2, 42L), null, "alumni.example.edu"));
+
+        // Then
+        assertThat(result.affected()).isEqualTo(2);
+        assertThat(result.missingIds()).containsExactly(42L);
+        assertThat(result.skippedIds()).containsExactly(FIRST_ID + 2);
+        assertThat(studentRepository.findStudentViewById(FIRST_ID + 1)).hasValueSatisfying(student ->
+                assertThat(student.email()).isEqualTo("\"first@last\"@alumni.example.edu"));
+        assertThat(studentRepository.findStudentViewById(FIRST_ID + 2)).hasValueSatisfying(student -> {
+            assertThat(student.email()).isEqualTo("no-at-sign");
+            assertThat(student.version()).isZero();
+        });
+    }
+
+    @Test
+    void itShouldRollBackEveryChunkWhenANewEmailClashes() {
+        // Given - the clash is in the second chunk, after the first one was updated
+        insert(600, "class2024.example.edu");
+        jdbcTemplate.update("INSERT INTO student (id, name, name_key, email, email_domain, dob, version)"
+                        + " VALUES (?, 'Taken', 'taken', 'student550@alumni.example.edu', 'alumni.example.edu', ?, 0)",
+                FIRST_ID - 1, Date.valueOf(LocalDate.of(2000, 1, 1)));
+        StudentBulkRequest request = new StudentBulkRequest(
+                null,
+                new StudentBulkRequest.Filter(null, "class2024.example.edu", null, null),
+                "alumni.example.edu");
+
+        // When / Then
+        assertThatThrownBy(() -> studentBulkService.updateEmailDomain(request))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("same email");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM student WHERE email_domain = 'class2024.example.edu' AND version = 0",
+                Long.class))
+                .isEqualTo(600L);
+    }
+
+    @Test
+    void itShouldRejectAmbiguousOrUnboundedSelections() {
+        assertThatThrownBy(() -> studentBulkService.deleteStudents(new StudentBulkRequest(null, null, null)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> studentBulkService.deleteStudents(new StudentBulkRequest(
+                List.of(1L), new StudentBulkRequest.Filter("a", null, null, null), null)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> studentBulkService.deleteStudents(new StudentBulkRequest(
+                null, new StudentBulkRequest.Filter(" ", null, null, null), null)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("at least one condition");
+        assertThatThrownBy(() -> studentBulkService.updateEmailDomain(new StudentBulkRequest(
+                List.of(1L), null, "someone@example.com")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("bare domain");
+    }
+
+    private void insert(int count, String domain) {
+        Date dob = Date.valueOf(LocalDate.of(2000, 1, 1));
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO student (id, name, name_key, email, email_domain, dob, version)"
+                        + " VALUES (?, ?, ?, ?, ?, ?, 0)",
+                LongStream.range(0, count)
+                        .mapToObj(i -> new Object[]{
+                                FIRST_ID + i,
+                                "Student " + i,
+                                "student " + i,
+                                "student" + i + "@" + domain,
+                                domain,
+                                dob})
+                        .toList());
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.demo.student;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import({StudentService.class, StudentSearchRepository.class, StudentCacheConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class StudentCacheConfigTest {
+
+    // stays empty, so every lookup goes to the database
+    @MockBean
+    private StudentIndex studentIndex;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @AfterEach
+    void tearDown() {
+        studentRepository.deleteAll();
+        cacheManager.getCacheNames()
+                .forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    void itShouldServeRepeatedLookupsFromCache() {
+        // Given
+        Student student = studentRepository.save(new Student(
+                "Cached",
+                "cached@gmail.com",
+                LocalDate.of(2000, 1, 1)));
+
+        // When
+        studentService.getStudent(student.getId());
+        studentService.getStudent(student.getId());
+        studentService.getStudentByEmail(student.getEmail());
+        studentService.getStudentByEmail(student.getEmail());
+
+        // Then
+        CacheStats byId = stats(StudentCacheConfig.STUDENTS);
+        assertThat(byId.hitCount()).isEqualTo(1);
+        assertThat(byId.missCount()).isEqualTo(1);
+        CacheStats byEmail = stats(StudentCacheConfig.STUDENTS_BY_EMAIL);
+        assertThat(byEmail.hitCount()).isEqualTo(1);
+        assertThat(byEmail.missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void itShouldEvictLookupsWhenStudentIsUpdated() {
+        // Given
+        Student student = studentRepository.save(new Student(
+                "Before",
+                "before@gmail.com",
+                LocalDate.of(2000, 1, 1)));
+        studentService.getStudent(student.getId());
+        studentService.getStudentByEmail(student.getEmail());
+
+        // When
+        studentService.updateStudent(student.getId(), "After", "after@gmail.com");
+
+        // Then
+        assertThat(cache(StudentCacheConfig.STUDENTS).get(student.getId())).isNull();
+        assertThat(cache(StudentCacheConfig.STUDENTS_BY_EMAIL).get("before@gmail.com")).isNull();
+        assertThat(studentService.getStudent(student.getId()).name()).isEqualTo("After");
+    }
+
+    @Test
+    void itShouldEvictLookupsWhenStudentIsDeleted() {
+        // Given
+        Student student = studentRepository.save(new Student(
+                "Gone",
+                "gone@gmail.com",
+                LocalDate.of(2000, 1, 1)));
+        studentService.getStudent(student.getId());
+
+        // When
+        studentService.deleteStudent(student.getId());
+
+        // Then
+        assertThat(cache(StudentCacheConfig.STUDENTS).get(student.getId())).isNull();
+    }
+
+    private Cache cache(String name) {
+        return cacheManager.getCache(name);
+    }
+
+    private CacheStats stats(String name) {
+        Cache cache = ((TransactionAwareCacheDecorator) cache(name)).getTargetCache();
+        return ((CaffeineCache) cache).getNativeCache().stats();
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.demo.student;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@WebMvcTest(StudentChangeController.class)
+public class StudentChangeControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private StudentChangeFeed studentChangeFeed;
+
+    @Test
+    void streamChangesShouldResumeFromSince() throws Exception {
+        when(studentChangeFeed.subscribe(42L)).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/v1/student/changes")
+                        .param("since", "42")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+
+        verify(studentChangeFeed).subscribe(42L);
+    }
+
+    @Test
+    void streamChangesShouldPreferLastEventId() throws Exception {
+        when(studentChangeFeed.subscribe(57L)).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/v1/student/changes")
+                        .param("since", "42")
+                        .header(StudentChangeController.LAST_EVENT_ID_HEADER, "57")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+
+        verify(studentChangeFeed).subscribe(57L);
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.demo.student;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StudentChangeCursorTest {
+
+    private static final Duration GAP_TIMEOUT = Duration.ofSeconds(5);
+
+    private final AtomicLong clock = new AtomicLong();
+    private final StudentChangeCursor cursor = new StudentChangeCursor(10, GAP_TIMEOUT, clock::get);
+
+    @Test
+    void itShouldMoveOverContiguousIds() {
+        // When
+        List<StudentChange> ready = cursor.advance(changes(11, 12, 13));
+
+        // Then
+        assertThat(ready).extracting(StudentChange::getId).containsExactly(11L, 12L, 13L);
+        assertThat(cursor.position()).isEqualTo(13);
+    }
+
+    @Test
+    void itShouldWaitForAnIdStillInFlight() {
+        // When
+        List<StudentChange> beforeCommit = cursor.advance(changes(11, 13, 14));
+        clock.addAndGet(GAP_TIMEOUT.toNanos() / 2);
+        List<StudentChange> afterCommit = cursor.advance(changes(12, 13, 14));
+
+        // Then
+        assertThat(beforeCommit).extracting(StudentChange::getId).containsExactly(11L);
+        assertThat(afterCommit).extracting(StudentChange::getId).containsExactly(12L, 13L, 14L);
+    }
+
+    @Test
+    void itShouldSkipEveryGapThatOutlivedTheTimeout() {
+        // Given
+        cursor.advance(changes(12, 14, 16));
+
+        // When
+        clock.addAndGet(GAP_TIMEOUT.toNanos() - 1);
+        List<StudentChange> early = cursor.advance(changes(12, 14, 16, 18));
+        clock.addAndGet(1);
+        List<StudentChange> expired = cursor.advance(changes(12, 14, 16, 18));
+
+        // Then
+        assertThat(early).isEmpty();
+        assertThat(expired).extracting(StudentChange::getId).containsExactly(12L, 14L, 16L);
+        assertThat(cursor.position()).isEqualTo(16);
+    }
+
+    @Test
+    void itShouldGiveAGapSeenLaterItsOwnTimeout() {
+        // Given
+        cursor.advance(changes(12));
+        clock.addAndGet(GAP_TIMEOUT.toNanos());
+        cursor.advance(changes(12, 14));
+
+        // When
+        List<StudentChange> ready = cursor.advance(changes(14));
+        clock.addAndGet(GAP_TIMEOUT.toNanos());
+        List<StudentChange> expired = cursor.advance(changes(14));
+
+        // Then
+        assertThat(ready).isEmpty();
+        assertThat(expired).extracting(StudentChange::getId).containsExactly(14L);
+    }
+
+    private static List<StudentChange> changes(long... ids) {
+        return Arrays.stream(ids)
+                .mapToObj(id -> {
+                    StudentChange change = new StudentChange(StudentChangedEvent.Type.UPDATED, id, Instant.EPOCH);
+                    ReflectionTestUtils.setField(change, "id", id);
+                    return change;
+                })
+                .toList();
+    }
+}
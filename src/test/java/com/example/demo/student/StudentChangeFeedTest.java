@@ -0,0 +1,244 @@
+package com.example.demo.student;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest
+public class StudentChangeFeedTest {
+
+    @Autowired
+    private StudentChangeRepository studentChangeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void itShouldResumeAfterTheGivenSequence() throws Exception {
+        // Given
+        List<StudentChange> changes = studentChangeRepository.saveAllAndFlush(IntStream.range(0, 5)
+                .mapToObj(i -> new StudentChange(StudentChangedEvent.Type.CREATED, (long) i, Instant.now()))
+                .toList());
+        StudentChangeFeed feed = feed();
+        long since = changes.get(1).getId();
+
+        // When
+        CapturingEmitter emitter = new CapturingEmitter();
+        feed.subscribe(since, emitter);
+        feed.publish();
+
+        // Then
+        assertThat(emitter.events).hasSize(3);
+        assertThat(emitter.events.get(0)).contains("id:" + changes.get(2).getId());
+        assertThat(emitter.events.get(0)).contains("event:created");
+    }
+
+    @Test
+    void itShouldResetASubscriberThatResumesFromPurgedChanges() throws Exception {
+        // Given - the first two changes are past the retention and purged
+        List<StudentChange> changes = studentChangeRepository.saveAllAndFlush(IntStream.range(0, 5)
+                .mapToObj(i -> new StudentChange(StudentChangedEvent.Type.CREATED, (long) i, Instant.now()))
+                .toList());
+        jdbcTemplate.update("DELETE FROM student_change WHERE id <= ?", changes.get(1).getId());
+        StudentChangeFeed feed = feed();
+
+        // When
+        CapturingEmitter emitter = new CapturingEmitter();
+        feed.subscribe(changes.get(0).getId() - 1, emitter);
+        feed.publish();
+
+        // Then - nothing after the purged range, just the point to carry on from
+        assertThat(emitter.events).singleElement().asString()
+                .contains("event:" + StudentChangeFeed.RESET_EVENT)
+                .contains("id:" + changes.get(4).getId());
+    }
+
+    @Test
+    void itShouldReadEachPageOnceForSubscribersAtTheSamePosition() {
+        // Given
+        long since = studentChangeRepository.saveAllAndFlush(IntStream.range(0, 3)
+                .mapToObj(i -> new StudentChange(StudentChangedEvent.Type.CREATED, (long) i, Instant.now()))
+                .toList()).get(0).getId() - 1;
+        StudentChangeRepository repository = mock(StudentChangeRepository.class, delegatesTo(studentChangeRepository));
+        StudentChangeFeed feed = feed(repository, Duration.ofHours(1), Runnable::run);
+        CapturingEmitter first = new CapturingEmitter();
+        CapturingEmitter second = new CapturingEmitter();
+        feed.subscribe(since, first);
+        feed.subscribe(since, second);
+
+        // When
+        feed.publish();
+
+        // Then
+        verify(repository, times(1)).findChangesAfter(eq(since), any());
+        assertThat(first.events).hasSize(3);
+        assertThat(second.events).isEqualTo(first.events);
+    }
+
+    @Test
+    void itShouldKeepSendingToOthersAndDropASubscriberThatStalls() throws Exception {
+        // Given
+        long since = studentChangeRepository.saveAllAndFlush(IntStream.range(0, 3)
+                .mapToObj(i -> new StudentChange(StudentChangedEvent.Type.CREATED, (long) i, Instant.now()))
+                .toList()).get(0).getId() - 1;
+        ExecutorService sender = Executors.newCachedThreadPool();
+        StudentChangeFeed feed = feed(studentChangeRepository, Duration.ofMillis(100), sender);
+        StalledEmitter stalled = new StalledEmitter();
+        CapturingEmitter other = new CapturingEmitter();
+        feed.subscribe(since, stalled);
+        feed.subscribe(since, other);
+
+        try {
+            // When
+            feed.publish();
+            Thread.sleep(300);
+
+            // Then
+            assertThat(other.events).hasSize(3);
+            assertThat(stalled.events).hasSize(1);
+
+            // When - no progress for longer than a heartbeat
+            feed.publish();
+            stalled.released.countDown();
+
+            // Then - closed without the rest, to come back with Last-Event-ID
+            assertThat(stalled.completed.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(stalled.events).hasSize(1);
+        } finally {
+            stalled.released.countDown();
+            sender.shutdownNow();
+        }
+    }
+
+    @Test
+    void itShouldOnlyStreamNewChangesWithoutASequence() throws Exception {
+        // Given
+        studentChangeRepository.saveAndFlush(
+                new StudentChange(StudentChangedEvent.Type.CREATED, 1L, Instant.now()));
+        StudentChangeFeed feed = feed();
+        CapturingEmitter emitter = new CapturingEmitter();
+        feed.subscribe(null, emitter);
+
+        // When
+        feed.publish();
+        StudentChange next = studentChangeRepository.saveAndFlush(
+                new StudentChange(StudentChangedEvent.Type.DELETED, 1L, Instant.now()));
+        feed.publish();
+
+        // Then
+        assertThat(emitter.events).singleElement().asString()
+                .contains("id:" + next.getId())
+                .contains("event:deleted");
+    }
+
+    @Test
+    void itShouldHoldBackChangesBehindOneStillInFlight() throws Exception {
+        // Given - the change after since has its id but has not committed yet
+        long since = studentChangeRepository.findLatestId();
+        insertChange(since + 1);
+        insertChange(since + 3);
+        StudentChangeFeed feed = feed();
+        CapturingEmitter emitter = new CapturingEmitter();
+        feed.subscribe(since, emitter);
+
+        // When
+        feed.publish();
+        List<String> beforeCommit = List.copyOf(emitter.events);
+        insertChange(since + 2);
+        feed.publish();
+
+        // Then
+        assertThat(beforeCommit).singleElement().asString().contains("id:" + (since + 1));
+        assertThat(emitter.events).hasSize(3);
+        assertThat(emitter.events.get(1)).contains("id:" + (since + 2));
+        assertThat(emitter.events.get(2)).contains("id:" + (since + 3));
+    }
+
+    @Test
+    void itShouldWriteOutboxIdsOneByOne() {
+        // When
+        List<StudentChange> changes = studentChangeRepository.saveAllAndFlush(IntStream.range(0, 3)
+                .mapToObj(i -> new StudentChange(StudentChangedEvent.Type.UPDATED, (long) i, Instant.now()))
+                .toList());
+
+        // Then
+        assertThat(changes.get(1).getId()).isEqualTo(changes.get(0).getId() + 1);
+        assertThat(changes.get(2).getId()).isEqualTo(changes.get(1).getId() + 1);
+    }
+
+    private void insertChange(long id) {
+        jdbcTemplate.update("INSERT INTO student_change (id, type, student_id, created_at)"
+                + " VALUES (?, 'UPDATED', 1, CURRENT_TIMESTAMP)", id);
+    }
+
+    private StudentChangeFeed feed() {
+        return feed(studentChangeRepository, Duration.ofHours(1), Runnable::run);
+    }
+
+    private static StudentChangeFeed feed(StudentChangeRepository repository, Duration heartbeat, Executor sender) {
+        return new StudentChangeFeed(
+                repository,
+                Duration.ofMillis(500),
+                heartbeat,
+                Duration.ofMinutes(1),
+                Duration.ofDays(7),
+                Duration.ofMinutes(1),
+                1000,
+                sender);
+    }
+
+    static class CapturingEmitter extends SseEmitter {
+        final List<String> events = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch completed = new CountDownLatch(1);
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            StringBuilder event = new StringBuilder();
+            builder.build().forEach(part -> event.append(part.getData()));
+            events.add(event.toString());
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+    }
+
+    // takes one event, then hangs like a client that stopped reading
+    static class StalledEmitter extends CapturingEmitter {
+        final CountDownLatch released = new CountDownLatch(1);
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            super.send(builder);
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
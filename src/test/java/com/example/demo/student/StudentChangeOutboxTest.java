@@ -0,0 +1,102 @@
+package com.example.demo.student;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest
+@Import({StudentService.class, StudentSearchRepository.class, StudentChangeOutbox.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class StudentChangeOutboxTest {
+
+    // stays empty, so every lookup goes to the database
+    @MockBean
+    private StudentIndex studentIndex;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private StudentChangeRepository studentChangeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void tearDown() {
+        studentChangeRepository.deleteAllInBatch();
+        studentRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void itShouldWriteOneOutboxRowPerCommittedChange() {
+        // Given
+        Student student = new Student("Outbox", "outbox@gmail.com", LocalDate.of(2000, 1, 1));
+
+        // When
+        studentService.addNewStudent(student);
+        studentService.updateStudent(student.getId(), "Outbox Renamed", null);
+        studentService.deleteStudent(student.getId());
+
+        // Then
+        assertThat(studentChangeRepository.findAll())
+                .extracting(StudentChange::getType, StudentChange::getStudentId)
+                .containsExactly(
+                        tuple(StudentChangedEvent.Type.CREATED, student.getId()),
+                        tuple(StudentChangedEvent.Type.UPDATED, student.getId()),
+                        tuple(StudentChangedEvent.Type.DELETED, student.getId()));
+    }
+
+    @Test
+    void itShouldNumberTheRowsOfOneChangeConsecutively() {
+        // When
+        new StudentChangeOutbox(jdbcTemplate, entityManagerFactory).onStudentChanged(
+                new StudentChangedEvent(StudentChangedEvent.Type.DELETED, List.of(7L, 8L, 9L)));
+
+        // Then
+        List<StudentChange> changes = studentChangeRepository.findChangesAfter(0L, PageRequest.ofSize(10));
+        long first = changes.get(0).getId();
+        assertThat(changes)
+                .extracting(StudentChange::getId, StudentChange::getStudentId)
+                .containsExactly(
+                        tuple(first, 7L),
+                        tuple(first + 1, 8L),
+                        tuple(first + 2, 9L));
+    }
+
+    @Test
+    void itShouldNotWriteOutboxRowWhenTheChangeRollsBack() {
+        // Given
+        studentService.addNewStudent(new Student("First", "taken@gmail.com", LocalDate.of(2000, 1, 1)));
+        long before = studentChangeRepository.count();
+
+        // When
+        assertThatThrownBy(() -> studentService.addNewStudent(
+                new Student("Second", "taken@gmail.com", LocalDate.of(2000, 1, 1))))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        // Then
+        assertThat(studentChangeRepository.count()).isEqualTo(before);
+    }
+}
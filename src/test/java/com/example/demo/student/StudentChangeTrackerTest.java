@@ -0,0 +1,55 @@
+package com.example.demo.student;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(StudentChangeTracker.class)
+public class StudentChangeTrackerTest {
+
+    @Autowired
+    private StudentChangeTracker studentChangeTracker;
+
+    @Autowired
+    private StudentChangeRepository studentChangeRepository;
+
+    @Test
+    void eTagIsStableWhileNothingChanges() {
+        assertThat(studentChangeTracker.currentETag())
+                .isEqualTo(studentChangeTracker.currentETag())
+                .startsWith("\"")
+                .endsWith("\"");
+    }
+
+    @Test
+    void eTagChangesAfterEveryStudentChange() {
+        // Given
+        String before = studentChangeTracker.currentETag();
+
+        // When
+        studentChangeRepository.saveAndFlush(
+                new StudentChange(StudentChangedEvent.Type.DELETED, 1L, Instant.now()));
+
+        // Then
+        assertThat(studentChangeTracker.currentETag()).isNotEqualTo(before);
+    }
+
+    @Test
+    void eTagIsTheSameOnEveryInstance() {
+        // Given
+        studentChangeRepository.saveAndFlush(
+                new StudentChange(StudentChangedEvent.Type.CREATED, 1L, Instant.now()));
+
+        // When
+        StudentChangeTracker otherInstance = new StudentChangeTracker(studentChangeRepository);
+
+        // Then
+        assertThat(otherInstance.currentETag()).isEqualTo(studentChangeTracker.currentETag());
+    }
+}
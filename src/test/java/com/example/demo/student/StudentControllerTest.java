@@ -1,26 +1,46 @@
 package com.example.demo.student;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(StudentController.class)
+@Import({StudentIdempotency.class, StudentIdempotencyConfig.class})
 public class StudentControllerTest {
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
 
     @Autowired
     private MockMvc mockMvc;
@@ -28,25 +48,326 @@ public class StudentControllerTest {
     @MockBean
     private StudentService studentService;
 
+    @MockBean
+    private StudentImportService studentImportService;
+
+    @MockBean
+    private StudentBulkService studentBulkService;
+
+    @MockBean
+    private StudentChangeTracker studentChangeTracker;
+
+    @MockBean
+    private StudentRegistrationQueue studentRegistrationQueue;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @BeforeEach
+    void setUp() {
+        when(studentChangeTracker.currentETag()).thenReturn("\"test-1\"");
+    }
+
     @Test
     void getStudentsShouldReturnListOfStudents() throws Exception {
-        when(studentService.getStudents()).thenReturn(List.of(
-                new Student(
+        when(studentService.getStudents(null, 100)).thenReturn(new StudentPage(
+                List.of(new StudentView(
+                        1L,
                         "Gucci",
                         "gucci.gang@gmail.com",
-                        LocalDate.of(2000,1,1)
-                )
-        ));
+                        LocalDate.of(2000,1,1),
+                        24,
+                        0L
+                )),
+                null,
+                7L));
 
         mockMvc.perform(get("/api/v1/student"))
                 .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(StudentController.NEXT_CURSOR_HEADER))
                 .andExpect(jsonPath("$[0].name")
                         .value("Gucci"));
     }
 
+    @Test
+    void getStudentsShouldReturnETag() throws Exception {
+        when(studentService.getStudents(null, 100)).thenReturn(new StudentPage(List.of(), null, 7L));
+
+        mockMvc.perform(get("/api/v1/student"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"7\""));
+
+        verifyNoInteractions(studentChangeTracker);
+    }
+
+    @Test
+    void getStudentsShouldTagTheBodyWithTheChangeItWasReadAt() throws Exception {
+        when(studentService.getStudents(null, 100)).thenReturn(new StudentPage(List.of(), null, 7L));
+
+        mockMvc.perform(get("/api/v1/student")
+                        .header("If-None-Match", "\"6\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"7\""));
+    }
+
+    @Test
+    void searchStudentsShouldNotTagPagesWithoutAChangeId() throws Exception {
+        when(studentService.searchStudents(any())).thenReturn(new StudentSearchPage(List.of(), null, null));
+
+        mockMvc.perform(get("/api/v1/student/search")
+                        .param("namePrefix", "gu"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("ETag"));
+    }
+
+    @Test
+    void getStudentsShouldReturnNotModifiedWithoutTouchingService() throws Exception {
+        mockMvc.perform(get("/api/v1/student")
+                        .header("If-None-Match", "\"test-1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"test-1\""));
+
+        verifyNoInteractions(studentService);
+    }
+
+    @Test
+    void getStudentShouldReturnNotModifiedForCurrentVersion() throws Exception {
+        when(studentService.getStudent(1L)).thenReturn(new StudentView(
+                1L,
+                "Gucci",
+                "gucci.gang@gmail.com",
+                LocalDate.of(2000,1,1),
+                24,
+                3L));
+
+        mockMvc.perform(get("/api/v1/student/{studentId}", 1L)
+                        .header("If-None-Match", "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3\""));
+    }
+
+    @Test
+    void getStudentShouldReturnBodyWhenETagIsStale() throws Exception {
+        when(studentService.getStudent(1L)).thenReturn(new StudentView(
+                1L,
+                "Gucci",
+                "gucci.gang@gmail.com",
+                LocalDate.of(2000,1,1),
+                24,
+                0L));
+
+        mockMvc.perform(get("/api/v1/student/{studentId}", 1L)
+                        .header("If-None-Match", "\"test-1\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"0\""))
+                .andExpect(jsonPath("$.name").value("Gucci"));
+    }
+
+    @Test
+    void getStudentsShouldReturnNextCursorWhenPageIsFull() throws Exception {
+        when(studentService.getStudents(5L, 1)).thenReturn(new StudentPage(
+                List.of(new StudentView(
+                        6L,
+                        "Gucci",
+                        "gucci.gang@gmail.com",
+                        LocalDate.of(2000,1,1),
+                        24,
+                        0L
+                )),
+                6L,
+                7L));
+
+        mockMvc.perform(get("/api/v1/student")
+                        .param("after", "5")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(StudentController.NEXT_CURSOR_HEADER, "6"))
+                .andExpect(header().string("Link",
+                        "<http://localhost/api/v1/student?after=6&limit=1>; rel=\"next\""))
+                .andExpect(jsonPath("$[0].id").value(6));
+    }
+
+    @Test
+    void searchStudentsShouldPassFiltersAndReturnNextCursor() throws Exception {
+        StudentSearchCriteria criteria = new StudentSearchCriteria(
+                "gu",
+                "gmail.com",
+                LocalDate.of(1990,1,1),
+                null,
+                null,
+                30,
+                StudentSearchCriteria.Sort.NAME,
+                null,
+                1);
+        when(studentService.searchStudents(criteria)).thenReturn(new StudentSearchPage(
+                List.of(new StudentView(
+                        1L,
+                        "Gucci",
+                        "gucci.gang@gmail.com",
+                        LocalDate.of(2000,1,1),
+                        24,
+                        0L)),
+                "Z3VjY2l8MQ",
+                7L));
+
+        mockMvc.perform(get("/api/v1/student/search")
+                        .param("namePrefix", "gu")
+                        .param("emailDomain", "gmail.com")
+                        .param("bornFrom", "1990-01-01")
+                        .param("maxAge", "30")
+                        .param("sort", "name")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(StudentController.NEXT_CURSOR_HEADER, "Z3VjY2l8MQ"))
+                .andExpect(jsonPath("$[0].name").value("Gucci"));
+    }
+
+    @Test
+    void streamStudentsShouldWriteEveryRowAsJsonArray() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<StudentView> consumer = invocation.getArgument(0);
+            consumer.accept(new StudentView(1L, "Gucci", "gucci.gang@gmail.com", LocalDate.of(2000,1,1), 24, 0L));
+            consumer.accept(new StudentView(2L, "Bello", "bello@gmail.com", LocalDate.of(2001,1,5), 23, 0L));
+            return null;
+        }).when(studentService).streamStudents(any());
+
+        MvcResult result = mockMvc.perform(get("/api/v1/student")
+                        .param("stream", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].name").value("Bello"));
+    }
+
+    @Test
+    void streamStudentsShouldWriteOneRowPerLineForNdjson() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<StudentView> consumer = invocation.getArgument(0);
+            consumer.accept(new StudentView(1L, "Gucci", "gucci.gang@gmail.com", LocalDate.of(2000,1,1), 24, 0L));
+            consumer.accept(new StudentView(2L, "Bello", "bello@gmail.com", LocalDate.of(2001,1,5), 23, 0L));
+            return null;
+        }).when(studentService).streamStudents(any());
+
+        MvcResult result = mockMvc.perform(get("/api/v1/student")
+                        .param("stream", "true")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        List<String> lines = body.lines().toList();
+        assertEquals(2, lines.size());
+        assertEquals("Bello", objectMapper.readTree(lines.get(1)).get("name").asText());
+    }
+
+    @Test
+    void getStudentsShouldNegotiateSmile() throws Exception {
+        when(studentService.getStudents(null, 100)).thenReturn(new StudentPage(
+                List.of(new StudentView(1L, "Gucci", "gucci.gang@gmail.com", LocalDate.of(2000,1,1), 24, 0L)),
+                null,
+                7L));
+
+        byte[] body = mockMvc.perform(get("/api/v1/student")
+                        .accept(SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(SMILE))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+
+        assertEquals("Gucci", new ObjectMapper(new SmileFactory()).readTree(body).get(0).get("name").asText());
+    }
+
+    @Test
+    void getStudentShouldNegotiateCbor() throws Exception {
+        when(studentService.getStudent(1L)).thenReturn(
+                new StudentView(1L, "Gucci", "gucci.gang@gmail.com", LocalDate.of(2000,1,1), 24, 0L));
+
+        byte[] body = mockMvc.perform(get("/api/v1/student/1")
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+
+        assertEquals("Gucci", new ObjectMapper(new CBORFactory()).readTree(body).get("name").asText());
+    }
+
+    @Test
+    void eachRepresentationShouldGetItsOwnETag() throws Exception {
+        when(studentService.getStudent(1L)).thenReturn(
+                new StudentView(1L, "Gucci", "gucci.gang@gmail.com", LocalDate.of(2000,1,1), 24, 3L));
+        when(studentService.getStudents(null, 100)).thenReturn(new StudentPage(List.of(), null, 7L));
+
+        mockMvc.perform(get("/api/v1/student/1").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3.cbor\""));
+        mockMvc.perform(get("/api/v1/student/1").accept(SMILE))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3.smile\""));
+        mockMvc.perform(get("/api/v1/student").accept(SMILE))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"7.smile\""));
+    }
+
+    @Test
+    void getStudentShouldNotAnswerNotModifiedWithAnotherRepresentation() throws Exception {
+        when(studentService.getStudent(1L)).thenReturn(
+                new StudentView(1L, "Gucci", "gucci.gang@gmail.com", LocalDate.of(2000,1,1), 24, 3L));
+
+        mockMvc.perform(get("/api/v1/student/1")
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .header("If-None-Match", "\"3\""))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR));
+        mockMvc.perform(get("/api/v1/student/1")
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .header("If-None-Match", "\"3.cbor\""))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void getStudentShouldReturnSingleStudent() throws Exception {
+        when(studentService.getStudent(1L)).thenReturn(new StudentView(
+                1L,
+                "Gucci",
+                "gucci.gang@gmail.com",
+                LocalDate.of(2000,1,1),
+                24,
+                0L));
+
+        mockMvc.perform(get("/api/v1/student/{studentId}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value("gucci.gang@gmail.com"));
+    }
+
+    @Test
+    void getStudentByEmailShouldReturnSingleStudent() throws Exception {
+        when(studentService.getStudentByEmail("gucci.gang@gmail.com")).thenReturn(new StudentView(
+                1L,
+                "Gucci",
+                "gucci.gang@gmail.com",
+                LocalDate.of(2000,1,1),
+                24,
+                0L));
+
+        mockMvc.perform(get("/api/v1/student")
+                        .param("email", "gucci.gang@gmail.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1));
+    }
+
     @Test
     void registerNewStudent() throws Exception {
         Student student = new Student(
@@ -70,6 +391,36 @@ public class StudentControllerTest {
         assertEquals(student.getDob(), capturedStudent.getDob());
     }
 
+    @Test
+    void importStudentsFromJson() throws Exception {
+        when(studentImportService.importJson(any())).thenReturn(new StudentImportReport(
+                1,
+                0,
+                List.of(new StudentImportResult(
+                        1, "new.student@gmail.com", StudentImportResult.Status.IMPORTED, 7L, null))));
+
+        mockMvc.perform(post("/api/v1/student/import")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.rows[0].id").value(7));
+    }
+
+    @Test
+    void importStudentsFromCsv() throws Exception {
+        when(studentImportService.importCsv(any())).thenReturn(new StudentImportReport(
+                0, 0, List.of()));
+
+        mockMvc.perform(post("/api/v1/student/import")
+                        .contentType(StudentImportService.TEXT_CSV_VALUE)
+                        .content("name,email,dob\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(0));
+
+        verify(studentImportService).importCsv(any());
+    }
+
     @Test
     void deleteStudent() throws Exception {
         Long studentId = 1L;
@@ -131,4 +482,178 @@ public class StudentControllerTest {
         );
     }
 
+    @Test
+    void bulkDeleteShouldReturnCountsAndMissingIds() throws Exception {
+        when(studentBulkService.deleteStudents(new StudentBulkRequest(List.of(1L, 2L, 3L), null, null)))
+                .thenReturn(new StudentBulkResult(3, 2, List.of(3L), List.of()));
+
+        mockMvc.perform(post("/api/v1/student/bulk-delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[1,2,3]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.requested").value(3))
+                .andExpect(jsonPath("$.affected").value(2))
+                .andExpect(jsonPath("$.missingIds[0]").value(3));
+    }
+
+    @Test
+    void bulkUpdateShouldPassTheFilterAndNewDomain() throws Exception {
+        StudentBulkRequest request = new StudentBulkRequest(
+                null,
+                new StudentBulkRequest.Filter(null, "class2024.example.edu", null, null),
+                "alumni.example.edu");
+        when(studentBulkService.updateEmailDomain(request))
+                .thenReturn(new StudentBulkResult(40, 40, List.of(), List.of()));
+
+        mockMvc.perform(post("/api/v1/student/bulk-update")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"filter\":{\"emailDomain\":\"class2024.example.edu\"},"
+                                + "\"newEmailDomain\":\"alumni.example.edu\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(40))
+                .andExpect(jsonPath("$.missingIds").isEmpty());
+    }
+
+    @Test
+    void patchStudentWithIfMatchShouldUpdateConditionallyAndReturnNextETag() throws Exception {
+        mockMvc.perform(patch("/api/v1/student/{studentId}", 1L)
+                        .contentType(StudentController.MERGE_PATCH_JSON_VALUE)
+                        .header("If-Match", "\"4\"")
+                        .content("{\"name\":\"Patched\"}"))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string("ETag", "\"5\""));
+
+        verify(studentService).patchStudent(1L, 4L, new StudentPatch("Patched", null));
+    }
+
+    @Test
+    void patchStudentShouldAcceptTheETagOfAnyRepresentation() throws Exception {
+        mockMvc.perform(patch("/api/v1/student/{studentId}", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .header("If-Match", "\"4.cbor\"")
+                        .content("{\"name\":\"Patched\"}"))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string("ETag", "\"5.cbor\""));
+
+        verify(studentService).patchStudent(1L, 4L, new StudentPatch("Patched", null));
+    }
+
+    @Test
+    void patchStudentWithoutIfMatchShouldUpdateUnconditionally() throws Exception {
+        mockMvc.perform(patch("/api/v1/student/{studentId}", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"patched@gmail.com\"}"))
+                .andExpect(status().isNoContent())
+                .andExpect(header().doesNotExist("ETag"));
+
+        verify(studentService).patchStudent(1L, null, new StudentPatch(null, "patched@gmail.com"));
+    }
+
+    @Test
+    void patchStudentShouldReturnPreconditionFailedOnStaleVersion() throws Exception {
+        doThrow(new StudentVersionConflictException(1L))
+                .when(studentService).patchStudent(1L, 4L, new StudentPatch("Patched", null));
+
+        mockMvc.perform(patch("/api/v1/student/{studentId}", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("If-Match", "W/\"4\"")
+                        .content("{\"name\":\"Patched\"}"))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void patchStudentShouldRejectForeignETag() throws Exception {
+        mockMvc.perform(patch("/api/v1/student/{studentId}", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("If-Match", "\"test-1\"")
+                        .content("{\"name\":\"Patched\"}"))
+                .andExpect(status().isPreconditionFailed());
+
+        verifyNoInteractions(studentService);
+    }
+
+    @Test
+    void registerNewStudentShouldBeAcceptedWhenQueued() throws Exception {
+        UUID id = UUID.randomUUID();
+        when(studentRegistrationQueue.isEnabled()).thenReturn(true);
+        when(studentRegistrationQueue.submit(any())).thenReturn(Optional.of(
+                new StudentRegistration(id, StudentRegistration.State.PENDING, null, null)));
+
+        mockMvc.perform(post("/api/v1/student")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Queued\",\"email\":\"queued@gmail.com\",\"dob\":\"2001-01-05\"}"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location",
+                        "http://localhost/api/v1/student/registrations/" + id))
+                .andExpect(jsonPath("$.state").value("PENDING"));
+
+        verifyNoInteractions(studentService);
+    }
+
+    @Test
+    void registerNewStudentShouldReturnTooManyRequestsWhenQueueIsFull() throws Exception {
+        when(studentRegistrationQueue.isEnabled()).thenReturn(true);
+        when(studentRegistrationQueue.submit(any())).thenReturn(Optional.empty());
+
+        mockMvc.perform(post("/api/v1/student")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Queued\",\"email\":\"queued@gmail.com\",\"dob\":\"2001-01-05\"}"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @Test
+    void registerNewStudentShouldReplayRetriesWithTheSameIdempotencyKey() throws Exception {
+        String key = UUID.randomUUID().toString();
+        String body = "{\"name\":\"Retry\",\"email\":\"retry@gmail.com\",\"dob\":\"2001-01-05\"}";
+
+        mockMvc.perform(post("/api/v1/student")
+                        .header(StudentIdempotency.IDEMPOTENCY_KEY_HEADER, key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(StudentIdempotency.REPLAYED_HEADER));
+
+        mockMvc.perform(post("/api/v1/student")
+                        .header(StudentIdempotency.IDEMPOTENCY_KEY_HEADER, key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(header().string(StudentIdempotency.REPLAYED_HEADER, "true"));
+
+        verify(studentService, times(1)).addNewStudent(any());
+    }
+
+    @Test
+    void registerNewStudentShouldRejectAReusedIdempotencyKey() throws Exception {
+        String key = UUID.randomUUID().toString();
+
+        mockMvc.perform(post("/api/v1/student")
+                        .header(StudentIdempotency.IDEMPOTENCY_KEY_HEADER, key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"First\",\"email\":\"first@gmail.com\",\"dob\":\"2001-01-05\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/v1/student")
+                        .header(StudentIdempotency.IDEMPOTENCY_KEY_HEADER, key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Second\",\"email\":\"second@gmail.com\",\"dob\":\"2001-01-05\"}"))
+                .andExpect(status().isUnprocessableEntity());
+
+        verify(studentService, times(1)).addNewStudent(any());
+    }
+
+    @Test
+    void getRegistrationShouldReturnStatusOrNotFound() throws Exception {
+        UUID id = UUID.randomUUID();
+        when(studentRegistrationQueue.find(id)).thenReturn(Optional.of(
+                new StudentRegistration(id, StudentRegistration.State.REGISTERED, 7L, null)));
+
+        mockMvc.perform(get("/api/v1/student/registrations/{registrationId}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.studentId").value(7));
+        mockMvc.perform(get("/api/v1/student/registrations/{registrationId}", UUID.randomUUID()))
+                .andExpect(status().isNotFound());
+    }
 }
@@ -0,0 +1,124 @@
+package com.example.demo.student;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {"student.generator.count=2500", "student.generator.batch-size=400"})
+@Import({StudentDataGenerator.class, StudentChangeOutbox.class})
+@ActiveProfiles("data-generator")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class StudentDataGeneratorTest {
+
+    @Autowired
+    private StudentDataGenerator studentDataGenerator;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        // already done at startup for the first test, a no-op then
+        studentDataGenerator.generate();
+    }
+
+    @AfterEach
+    void tearDown() {
+        studentRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void itShouldGenerateValidStudents() {
+        // Then
+        assertThat(studentRepository.count()).isEqualTo(2500);
+        assertThat(studentRepository.findAll()).allSatisfy(student -> {
+            assertThat(StudentImportService.validate(student)).isNull();
+            assertThat(StudentDataGenerator.DOMAINS).contains(student.getEmail().substring(student.getEmail().indexOf('@') + 1));
+            assertThat(student.getDob()).isBetween(LocalDate.of(1960, 1, 1), LocalDate.of(2008, 12, 31));
+        });
+    }
+
+    @Test
+    void itShouldResumeWithTheSameRows() {
+        // Given
+        List<String> generated = emails();
+        jdbcTemplate.update("DELETE FROM student WHERE id IN (SELECT id FROM student ORDER BY id DESC FETCH FIRST 700 ROWS ONLY)");
+
+        // When
+        studentDataGenerator.generate();
+        studentDataGenerator.generate();
+
+        // Then
+        assertThat(emails()).containsExactlyElementsOf(generated);
+    }
+
+    @Test
+    void itShouldResumeAfterTheLastGeneratedRowWhateverElseChanged() {
+        // Given - two rows deleted from the middle and a student of our own in a generated domain
+        List<String> generated = emails();
+        List<String> removed = generated.subList(100, 102);
+        jdbcTemplate.update("DELETE FROM student WHERE email IN (?, ?)", removed.toArray());
+        jdbcTemplate.update("DELETE FROM student WHERE id IN (SELECT id FROM student ORDER BY id DESC FETCH FIRST 700 ROWS ONLY)");
+        studentRepository.saveAndFlush(new Student("Not Generated", "not.generated@class2001.example.edu",
+                LocalDate.of(2000, 1, 1)));
+
+        // When
+        studentDataGenerator.generate();
+
+        // Then - the tail is back, the middle rows are not made up again
+        List<String> expected = new ArrayList<>(generated);
+        expected.removeAll(removed);
+        expected.add(1800 - removed.size(), "not.generated@class2001.example.edu");
+        assertThat(emails()).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void itShouldRecordEveryGeneratedStudentInTheOutbox() {
+        // When
+        Long unrecorded = jdbcTemplate.queryForObject("SELECT count(*) FROM student s WHERE NOT EXISTS"
+                + " (SELECT 1 FROM student_change c WHERE c.student_id = s.id AND c.type = 'CREATED')", Long.class);
+
+        // Then
+        assertThat(unrecorded).isZero();
+    }
+
+    @Test
+    void itShouldUseEveryIdOfTheBlocksItDraws() {
+        // When
+        Long spread = jdbcTemplate.queryForObject("SELECT max(id) - min(id) FROM student", Long.class);
+
+        // Then - one sequence call per block of 50, not per row
+        assertThat(spread).isLessThan(2500 + 50);
+    }
+
+    @Test
+    void jpaInsertsShouldNotCollideWithGeneratedIds() {
+        // When
+        Student student = studentRepository.saveAndFlush(
+                new Student("After", "after.generator@gmail.com", LocalDate.of(2000, 1, 1)));
+
+        // Then
+        assertThat(student.getId()).isNotNull();
+        assertThat(studentRepository.count()).isEqualTo(2501);
+    }
+
+    private List<String> emails() {
+        return jdbcTemplate.queryForList("SELECT email FROM student ORDER BY id", String.class);
+    }
+}
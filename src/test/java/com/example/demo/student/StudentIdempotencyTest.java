@@ -0,0 +1,109 @@
+package com.example.demo.student;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class StudentIdempotencyTest {
+
+    private final Student student = new Student("Gucci", "gucci.gang@gmail.com", LocalDate.of(2000, 1, 5));
+    private final AtomicInteger executions = new AtomicInteger();
+
+    private StudentIdempotency underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new StudentIdempotency(new InMemoryStudentIdempotencyStore(100, Duration.ofHours(1)));
+    }
+
+    @Test
+    void itShouldReplayTheStoredRegistration() {
+        // Given
+        StudentRegistration registration = new StudentRegistration(
+                UUID.randomUUID(), StudentRegistration.State.PENDING, null, null);
+        underTest.execute("key-1", student, () -> {
+            executions.incrementAndGet();
+            return ResponseEntity.accepted().body(registration);
+        });
+
+        // When
+        ResponseEntity<StudentRegistration> replayed = underTest.execute("key-1", student, () -> {
+            executions.incrementAndGet();
+            return ResponseEntity.ok().build();
+        });
+
+        // Then
+        assertThat(executions).hasValue(1);
+        assertThat(replayed.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        assertThat(replayed.getBody()).isEqualTo(registration);
+        assertThat(replayed.getHeaders().getFirst(StudentIdempotency.REPLAYED_HEADER)).isEqualTo("true");
+    }
+
+    @Test
+    void itShouldAnswerConflictWhileTheFirstRequestIsRunning() {
+        // When
+        ResponseEntity<StudentRegistration> concurrent = underTest.execute("key-2", student, () ->
+                underTest.execute("key-2", student, () -> {
+                    executions.incrementAndGet();
+                    return ResponseEntity.ok().build();
+                }));
+
+        // Then
+        assertThat(executions).hasValue(0);
+        assertThat(concurrent.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    @Test
+    void itShouldFreeTheKeyWhenTheRegistrationFails() {
+        // Given
+        assertThatThrownBy(() -> underTest.execute("key-3", student, () -> {
+            throw new IllegalArgumentException("Student already exists");
+        })).isInstanceOf(IllegalArgumentException.class);
+
+        // When
+        ResponseEntity<StudentRegistration> retried = underTest.execute("key-3", student, () -> {
+            executions.incrementAndGet();
+            return ResponseEntity.ok().build();
+        });
+
+        // Then
+        assertThat(executions).hasValue(1);
+        assertThat(retried.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void itShouldNotStoreResponsesWorthRetrying() {
+        // Given
+        underTest.execute("key-4", student, () -> ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build());
+
+        // When
+        underTest.execute("key-4", student, () -> {
+            executions.incrementAndGet();
+            return ResponseEntity.ok().build();
+        });
+
+        // Then
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void itShouldRejectAKeyReusedForAnotherStudent() {
+        // Given
+        underTest.execute("key-5", student, () -> ResponseEntity.ok().build());
+        Student other = new Student("Bello", "bello@gmail.com", LocalDate.of(2001, 1, 5));
+
+        // When
+        // Then
+        assertThatThrownBy(() -> underTest.execute("key-5", other, () -> ResponseEntity.ok().build()))
+                .isInstanceOf(StudentIdempotencyKeyReusedException.class);
+    }
+}
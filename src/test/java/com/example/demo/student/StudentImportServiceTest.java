@@ -0,0 +1,146 @@
+package com.example.demo.student;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class StudentImportServiceTest {
+
+    @Mock
+    private StudentRepository studentRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private StudentImportService studentImportService;
+
+    private AutoCloseable mocks;
+
+    @BeforeEach
+    void setUp() {
+        mocks = MockitoAnnotations.openMocks(this);
+        studentImportService = new StudentImportService(
+                studentRepository,
+                eventPublisher,
+                transactionManager,
+                JsonMapper.builder().findAndAddModules().build());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        mocks.close();
+    }
+
+    @Test
+    void canImportCsvWithOneEmailQueryPerChunk() throws Exception {
+        // Given
+        StringBuilder csv = new StringBuilder("name,email,dob\n");
+        int count = StudentImportService.CHUNK_SIZE + 1;
+        for (int i = 0; i < count; i++) {
+            csv.append("Student ").append(i)
+                    .append(",student").append(i).append("@gmail.com")
+                    .append(",2000-01-01\n");
+        }
+        when(studentRepository.findExistingEmails(anyCollection()))
+                .thenReturn(Set.of("student0@gmail.com"));
+
+        // When
+        StudentImportReport report = studentImportService.importCsv(
+                new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)));
+
+        // Then
+        assertEquals(count - 1, report.imported());
+        assertEquals(1, report.rejected());
+        assertEquals(StudentImportResult.Status.DUPLICATE, report.rows().get(0).status());
+        verify(studentRepository, times(2)).findExistingEmails(anyCollection());
+    }
+
+    @Test
+    void importReportsRowsRegisteredDuringTheChunkAsDuplicates() throws Exception {
+        // Given - another request takes taken@gmail.com after the first email check
+        String csv = "name,email,dob\nFree,free@gmail.com,2000-01-01\nTaken,taken@gmail.com,2000-01-01\n";
+        when(studentRepository.findExistingEmails(anyCollection()))
+                .thenReturn(Set.of())
+                .thenReturn(Set.of("taken@gmail.com"));
+        doThrow(new DataIntegrityViolationException("student_email_unique"))
+                .doNothing()
+                .when(studentRepository).flush();
+
+        // When
+        StudentImportReport report = studentImportService.importCsv(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        // Then
+        assertEquals(1, report.imported());
+        assertEquals(StudentImportResult.Status.IMPORTED, report.rows().get(0).status());
+        assertEquals(StudentImportResult.Status.DUPLICATE, report.rows().get(1).status());
+        verify(studentRepository, times(2)).findExistingEmails(anyCollection());
+    }
+
+    @Test
+    void importStopsOnOtherConstraintViolations() {
+        // Given
+        String csv = "name,email,dob\nFree,free@gmail.com,2000-01-01\n";
+        when(studentRepository.findExistingEmails(anyCollection())).thenReturn(Set.of());
+        doThrow(new DataIntegrityViolationException("Value too long for column \"NAME\""))
+                .when(studentRepository).flush();
+
+        // When & Then
+        assertThrows(DataIntegrityViolationException.class, () -> studentImportService.importCsv(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8))));
+        verify(studentRepository, times(1)).findExistingEmails(anyCollection());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importJsonRejectsInvalidAndRepeatedRows() throws Exception {
+        // Given
+        String json = """
+                [
+                  {"name": "John Doe", "email": "john.doe@gmail.com", "dob": "2001-01-01"},
+                  {"name": "John Again", "email": "john.doe@gmail.com", "dob": "2001-01-01"},
+                  {"name": "", "email": "nameless@gmail.com", "dob": "2001-01-01"}
+                ]
+                """;
+        when(studentRepository.findExistingEmails(anyCollection()))
+                .thenReturn(Set.of());
+
+        // When
+        StudentImportReport report = studentImportService.importJson(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+
+        // Then
+        assertEquals(1, report.imported());
+        assertEquals(StudentImportResult.Status.DUPLICATE, report.rows().get(1).status());
+        assertEquals(StudentImportResult.Status.INVALID, report.rows().get(2).status());
+
+        ArgumentCaptor<Collection<Student>> saved = ArgumentCaptor.forClass(Collection.class);
+        verify(studentRepository).saveAll(saved.capture());
+        assertEquals(List.of("john.doe@gmail.com"),
+                saved.getValue().stream().map(Student::getEmail).toList());
+    }
+}
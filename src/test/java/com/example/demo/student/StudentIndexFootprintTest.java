@@ -0,0 +1,71 @@
+package com.example.demo.student;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Measures the heap held by a million-student {@link StudentIndex} and puts it
+ * next to the index's own estimate. Run with {@code ./mvnw -Pload-test test}.
+ */
+@Tag("load")
+public class StudentIndexFootprintTest {
+
+    private static final int STUDENTS = 1_000_000;
+
+    @Test
+    void reportHeapPerMillionStudents() {
+        long before = usedHeapAfterGc();
+
+        StudentIndex studentIndex = new StudentIndex(
+                mock(StudentRepository.class),
+                mock(StudentChangeRepository.class),
+                mock(PlatformTransactionManager.class),
+                new SimpleMeterRegistry(),
+                true,
+                STUDENTS,
+                Duration.ofMillis(500),
+                Duration.ofSeconds(5),
+                Runnable::run);
+        List<StudentView> batch = new ArrayList<>(StudentIndex.BATCH_SIZE);
+        LocalDate dob = LocalDate.of(1990, 1, 1);
+        for (int i = 0; i < STUDENTS; i++) {
+            batch.add(new StudentView((long) i, "Student " + i, "student" + i + "@example.com",
+                    dob.plusDays(i % 10_000), null, 0L));
+            if (batch.size() == StudentIndex.BATCH_SIZE) {
+                studentIndex.apply(batch, 0);
+                batch.clear();
+            }
+        }
+
+        long measured = usedHeapAfterGc() - before;
+        long estimated = studentIndex.estimatedBytes();
+        Reference.reachabilityFence(studentIndex);
+
+        System.out.printf("student index: %,d students, measured %,d MB, estimated %,d MB per million%n",
+                studentIndex.size(), (measured * 1_000_000 / STUDENTS) >> 20, estimated >> 20);
+
+        assertThat(studentIndex.size()).isEqualTo(STUDENTS);
+        assertThat(estimated).isBetween(measured / 2, measured * 2);
+    }
+
+    private static long usedHeapAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
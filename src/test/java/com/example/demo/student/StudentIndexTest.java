@@ -0,0 +1,303 @@
+package com.example.demo.student;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+public class StudentIndexTest {
+
+    private final StudentRepository studentRepository = mock(StudentRepository.class);
+    private final StudentChangeRepository studentChangeRepository = mock(StudentChangeRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final List<Runnable> refresherTasks = new ArrayList<>();
+
+    private StudentIndex studentIndex;
+
+    @BeforeEach
+    void setUp() {
+        studentIndex = index(true);
+    }
+
+    @Test
+    void itShouldAnswerLookupsOnlyOnceLoaded() {
+        // Given
+        when(studentRepository.streamAllStudentViews())
+                .thenReturn(Stream.of(view(1, "Alice", "alice@gmail.com", 0)));
+
+        // When
+        studentIndex.start();
+
+        // Then
+        assertThat(studentIndex.isReady()).isFalse();
+        assertThat(studentIndex.findById(1)).isEmpty();
+
+        // When
+        runRefresher();
+
+        // Then
+        assertThat(studentIndex.isReady()).isTrue();
+        assertThat(studentIndex.findById(1)).hasValueSatisfying(student -> {
+            assertThat(student.name()).isEqualTo("Alice");
+            assertThat(student.age()).isNotNull();
+        });
+        assertThat(studentIndex.findByEmail("alice@gmail.com")).map(StudentView::id).hasValue(1L);
+        assertThat(studentIndex.findById(2)).isEmpty();
+        verify(studentRepository, never()).findStudentViewById(anyLong());
+    }
+
+    @Test
+    void itShouldStayEmptyWhenDisabled() {
+        // Given
+        StudentIndex disabled = index(false);
+
+        // When
+        disabled.start();
+        disabled.onStudentChanged(StudentChangedEvent.updated(1L));
+
+        // Then
+        assertThat(refresherTasks).isEmpty();
+        assertThat(disabled.findById(1)).isEmpty();
+        verifyNoInteractions(studentRepository);
+    }
+
+    @Test
+    void itShouldPageThroughANamePrefixInNameOrder() {
+        // Given
+        load(IntStream.range(0, 60)
+                .mapToObj(i -> view(i, (i % 2 == 0 ? "Alice " : "Bob ") + (i * 37 % 60), "s" + i + "@gmail.com", 0))
+                .toList());
+        List<String> expected = IntStream.range(0, 60)
+                .filter(i -> i % 2 == 0)
+                .mapToObj(i -> "Alice " + (i * 37 % 60))
+                .sorted(String.CASE_INSENSITIVE_ORDER)
+                .toList();
+
+        // When
+        List<StudentView> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            StudentSearchPage page = studentIndex.search(byName("aLi", cursor), 7).orElseThrow();
+            paged.addAll(page.students());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        // Then
+        assertThat(paged).extracting(StudentView::name).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void itShouldContinueFromADatabaseCursor() {
+        // Given
+        load(List.of(
+                view(1, "Carol", "c1@gmail.com", 0),
+                view(2, "Carol", "c2@gmail.com", 0),
+                view(3, "Caroline", "c3@gmail.com", 0)));
+        String cursor = new StudentSearchQuery(byName("car", null), 1, LocalDate.now())
+                .cursorAfter(view(1, "Carol", "c1@gmail.com", 0));
+
+        // When
+        StudentSearchPage page = studentIndex.search(byName("car", cursor), 10).orElseThrow();
+
+        // Then
+        assertThat(page.students()).extracting(StudentView::id).containsExactly(2L, 3L);
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void itShouldLeaveOtherSearchesToTheDatabase() {
+        // Given
+        load(List.of(view(1, "Alice", "alice@gmail.com", 0)));
+
+        // When
+        StudentSearchCriteria byDomain = new StudentSearchCriteria(
+                "ali", "gmail.com", null, null, null, null, StudentSearchCriteria.Sort.NAME, null, 10);
+        StudentSearchCriteria byId = new StudentSearchCriteria(
+                "ali", null, null, null, null, null, StudentSearchCriteria.Sort.ID, null, 10);
+
+        // Then
+        assertThat(studentIndex.search(byDomain, 10)).isEmpty();
+        assertThat(studentIndex.search(byId, 10)).isEmpty();
+    }
+
+    @Test
+    void itShouldRefreshAChangedStudentFromTheRepository() {
+        // Given
+        load(List.of(view(1, "Alice", "alice@gmail.com", 0)));
+        when(studentRepository.findStudentViewsByIdIn(List.of(1L)))
+                .thenReturn(List.of(view(1, "Alicia", "alicia@gmail.com", 1)));
+
+        // When
+        studentIndex.onStudentChanged(StudentChangedEvent.updated(1L));
+
+        // Then - dropped straight away, searches wait for the refresh
+        assertThat(studentIndex.findById(1)).isEmpty();
+        assertThat(studentIndex.search(byName("ali", null), 10)).isEmpty();
+
+        // When
+        runRefresher();
+
+        // Then
+        assertThat(studentIndex.findById(1)).map(StudentView::version).hasValue(1L);
+        assertThat(studentIndex.findByEmail("alicia@gmail.com")).isPresent();
+        assertThat(studentIndex.findByEmail("alice@gmail.com")).isEmpty();
+        assertThat(studentIndex.search(byName("ali", null), 10).orElseThrow().students())
+                .extracting(StudentView::name)
+                .containsExactly("Alicia");
+    }
+
+    @Test
+    void itShouldNotLetAnEarlierReadOverwriteALaterChange() {
+        // Given
+        load(List.of(view(1, "Alice", "alice@gmail.com", 0)));
+        when(studentRepository.findStudentViewsByIdIn(List.of(1L)))
+                .thenReturn(List.of(view(1, "Alicia", "alicia@gmail.com", 1)));
+        studentIndex.onStudentChanged(StudentChangedEvent.updated(1L));
+
+        // When - a batch read before the change lands after it
+        studentIndex.apply(List.of(view(1, "Alice", "alice@gmail.com", 0)), 0);
+
+        // Then
+        assertThat(studentIndex.findById(1)).isEmpty();
+
+        // When
+        runRefresher();
+        studentIndex.apply(List.of(view(1, "Alice", "alice@gmail.com", 0)), 0);
+
+        // Then - the version guard keeps the newer row
+        assertThat(studentIndex.findById(1)).map(StudentView::name).hasValue("Alicia");
+    }
+
+    @Test
+    void itShouldNotResurrectDeletedStudents() {
+        // Given
+        load(List.of(view(1, "Alice", "alice@gmail.com", 0), view(2, "Bob", "bob@gmail.com", 0)));
+
+        // When
+        studentIndex.onStudentChanged(StudentChangedEvent.deleted(1L));
+        studentIndex.apply(List.of(view(1, "Alice", "alice@gmail.com", 0)), Long.MAX_VALUE);
+
+        // Then
+        assertThat(refresherTasks).isEmpty();
+        assertThat(studentIndex.findById(1)).isEmpty();
+        assertThat(studentIndex.findByEmail("alice@gmail.com")).isEmpty();
+        assertThat(studentIndex.size()).isEqualTo(1);
+        assertThat(studentIndex.search(byName("a", null), 10).orElseThrow().students()).isEmpty();
+    }
+
+    @Test
+    void itShouldEstimateItsFootprint() {
+        // Given
+        load(IntStream.range(0, 1000)
+                .mapToObj(i -> view(i, "Student " + i, "student" + i + "@gmail.com", 0))
+                .toList());
+
+        // When
+        long bytes = studentIndex.estimatedBytes();
+
+        // Then - at least the entries, two nodes and three short strings each
+        assertThat(bytes).isGreaterThan(1000L * (48 + 40 + 32 + 3 * 40));
+        assertThat(studentIndex.estimatedBytesPerMillion()).isEqualTo(bytes * 1000);
+    }
+
+    @Test
+    void itShouldApplyChangesCommittedByAnyInstance() {
+        // Given
+        when(studentChangeRepository.findLatestId()).thenReturn(10L);
+        load(List.of(view(1, "Alice", "alice@gmail.com", 0), view(2, "Bob", "bob@gmail.com", 0)));
+        when(studentChangeRepository.findChangesAfter(10L, PageRequest.ofSize(StudentIndex.BATCH_SIZE)))
+                .thenReturn(List.of(
+                        change(11, StudentChangedEvent.Type.UPDATED, 1),
+                        change(12, StudentChangedEvent.Type.DELETED, 2)));
+        when(studentRepository.findStudentViewsByIdIn(List.of(1L)))
+                .thenReturn(List.of(view(1, "Alicia", "alicia@gmail.com", 1)));
+
+        // When
+        studentIndex.poll();
+
+        // Then
+        assertThat(studentIndex.findById(1)).map(StudentView::name).hasValue("Alicia");
+        assertThat(studentIndex.findById(2)).isEmpty();
+        assertThat(studentIndex.search(byName("b", null), 10).orElseThrow().students()).isEmpty();
+    }
+
+    @Test
+    void itShouldReloadFromThePrimaryWhenARefreshFails() {
+        // Given
+        List<Boolean> readOnly = new ArrayList<>();
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> {
+            readOnly.add(invocation.<TransactionDefinition>getArgument(0).isReadOnly());
+            return null;
+        });
+        load(List.of(view(1, "Alice", "alice@gmail.com", 0)));
+        when(studentRepository.findStudentViewsByIdIn(List.of(1L))).thenThrow(new IllegalStateException("gone"));
+        when(studentRepository.streamAllStudentViews())
+                .thenReturn(Stream.of(view(1, "Alicia", "alicia@gmail.com", 1)));
+        readOnly.clear();
+
+        // When
+        studentIndex.onStudentChanged(StudentChangedEvent.updated(1L));
+        runRefresher();
+
+        // Then - the refresh and the reload both went to the primary
+        assertThat(readOnly).containsExactly(false, false);
+        assertThat(studentIndex.isReady()).isTrue();
+        assertThat(studentIndex.findById(1)).map(StudentView::name).hasValue("Alicia");
+    }
+
+    private StudentIndex index(boolean enabled) {
+        return new StudentIndex(
+                studentRepository,
+                studentChangeRepository,
+                transactionManager,
+                new SimpleMeterRegistry(),
+                enabled,
+                16,
+                Duration.ofMillis(500),
+                Duration.ofSeconds(5),
+                refresherTasks::add);
+    }
+
+    private void load(List<StudentView> students) {
+        when(studentRepository.streamAllStudentViews()).thenReturn(students.stream());
+        studentIndex.start();
+        runRefresher();
+    }
+
+    private void runRefresher() {
+        List<Runnable> tasks = List.copyOf(refresherTasks);
+        refresherTasks.clear();
+        tasks.forEach(Runnable::run);
+    }
+
+    private static StudentSearchCriteria byName(String namePrefix, String cursor) {
+        return new StudentSearchCriteria(
+                namePrefix, null, null, null, null, null, StudentSearchCriteria.Sort.NAME, cursor, 100);
+    }
+
+    private static StudentChange change(long id, StudentChangedEvent.Type type, long studentId) {
+        StudentChange change = new StudentChange(type, studentId, Instant.now());
+        ReflectionTestUtils.setField(change, "id", id);
+        return change;
+    }
+
+    private static StudentView view(long id, String name, String email, long version) {
+        return new StudentView(id, name, email, LocalDate.of(2000, 1, 5), null, version);
+    }
+}
@@ -19,7 +19,12 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "student.jdbc.statement-budget.mode=enforce",
+                "student.seed.enabled=false"
+        })
 @Transactional
 public class StudentIntegrationTest {
 
@@ -36,7 +41,7 @@ public class StudentIntegrationTest {
 
     @BeforeEach
     void setUp() {
-        studentRepository.deleteAll();
+        studentRepository.deleteAllInBatch();
         mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
                 .build();
     }
@@ -62,6 +67,159 @@ public class StudentIntegrationTest {
                 .andExpect(jsonPath("$[0].email").value(student.getEmail()));
     }
 
+    @Test
+    void itShouldAnswerConditionalGetWithNotModified() throws Exception {
+        // Given
+        Student student = studentRepository.saveAndFlush(new Student(
+                "Conditional",
+                "conditional@example.com",
+                LocalDate.of(2000, 1, 1)));
+        String eTag = mockMvc.perform(get("/api/v1/student"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader("ETag");
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/student").header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        String studentETag = mockMvc.perform(get("/api/v1/student/{studentId}", student.getId()))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader("ETag");
+        mockMvc.perform(get("/api/v1/student/{studentId}", student.getId())
+                        .header("If-None-Match", studentETag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void itShouldPatchOnlyWhenIfMatchIsCurrent() throws Exception {
+        // Given
+        Student student = studentRepository.saveAndFlush(new Student(
+                "Dana",
+                "dana@example.com",
+                LocalDate.of(2000, 4, 1)));
+        String eTag = mockMvc.perform(get("/api/v1/student/{studentId}", student.getId()))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader("ETag");
+
+        // When
+        String newETag = mockMvc.perform(patch("/api/v1/student/{studentId}", student.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("If-Match", eTag)
+                        .content("{\"name\":\"Dana Patched\"}"))
+                .andExpect(status().isNoContent())
+                .andReturn()
+                .getResponse()
+                .getHeader("ETag");
+
+        // Then - the old version is now stale, the new one still applies
+        mockMvc.perform(patch("/api/v1/student/{studentId}", student.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("If-Match", eTag)
+                        .content("{\"name\":\"Lost Update\"}"))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(get("/api/v1/student/{studentId}", student.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", newETag))
+                .andExpect(jsonPath("$.name").value("Dana Patched"));
+    }
+
+    @Test
+    void itShouldPageThroughStudentsWithCursor() throws Exception {
+        // Given
+        Student first = studentRepository.saveAndFlush(new Student(
+                "First",
+                "first@example.com",
+                LocalDate.of(2000, 1, 1)));
+        Student second = studentRepository.saveAndFlush(new Student(
+                "Second",
+                "second@example.com",
+                LocalDate.of(2000, 1, 2)));
+        Student third = studentRepository.saveAndFlush(new Student(
+                "Third",
+                "third@example.com",
+                LocalDate.of(2000, 1, 3)));
+
+        // When - first page
+        mockMvc.perform(get("/api/v1/student").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(first.getId()))
+                .andExpect(header().string(StudentController.NEXT_CURSOR_HEADER,
+                        second.getId().toString()));
+
+        // Then - second page
+        mockMvc.perform(get("/api/v1/student")
+                        .param("after", second.getId().toString())
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(third.getId()))
+                .andExpect(header().doesNotExist(StudentController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void itShouldImportStudentsFromJson() throws Exception {
+        // Given
+        studentRepository.saveAndFlush(new Student(
+                "Existing",
+                "existing@example.com",
+                LocalDate.of(2000, 1, 1)));
+        String body = """
+                [
+                  {"name": "Dana", "email": "dana@example.com", "dob": "2001-02-03"},
+                  {"name": "Dana Again", "email": "dana@example.com", "dob": "2001-02-03"},
+                  {"name": "Existing", "email": "existing@example.com", "dob": "2000-01-01"},
+                  {"name": "No Email", "dob": "2000-01-01"},
+                  {"name": "Bad Date", "email": "bad.date@example.com", "dob": "yesterday"},
+                  {"name": "Eve", "email": "eve@example.com", "dob": "2002-03-04"}
+                ]
+                """;
+
+        // When
+        mockMvc.perform(post("/api/v1/student/import")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                // Then
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.rejected").value(4))
+                .andExpect(jsonPath("$.rows[0].status").value("IMPORTED"))
+                .andExpect(jsonPath("$.rows[1].status").value("DUPLICATE"))
+                .andExpect(jsonPath("$.rows[2].status").value("DUPLICATE"))
+                .andExpect(jsonPath("$.rows[3].status").value("INVALID"))
+                .andExpect(jsonPath("$.rows[4].status").value("INVALID"))
+                .andExpect(jsonPath("$.rows[5].status").value("IMPORTED"));
+
+        assertThat(studentRepository.findStudentByEmail("eve@example.com")).isPresent();
+    }
+
+    @Test
+    void itShouldImportStudentsFromCsv() throws Exception {
+        // Given
+        String body = """
+                name,email,dob
+                Frank,frank@example.com,1999-12-31
+                Grace,grace@example.com,2000-06-15
+                """;
+
+        // When
+        mockMvc.perform(post("/api/v1/student/import")
+                        .contentType(StudentImportService.TEXT_CSV_VALUE)
+                        .content(body))
+                // Then
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.rows[1].email").value("grace@example.com"));
+
+        assertThat(studentRepository.findStudentByEmail("frank@example.com")).isPresent();
+    }
+
     @Test
     void itShouldDeleteStudent() throws Exception {
         // Given
@@ -69,7 +227,7 @@ public class StudentIntegrationTest {
                 "Bob",
                 "bob@example.com",
                 LocalDate.of(2000, 2, 10));
-        Student savedStudent = studentRepository.save(student);
+        Student savedStudent = studentRepository.saveAndFlush(student);
 
         // When - DELETE
         mockMvc.perform(delete("/api/v1/student/{studentId}", savedStudent.getId()))
@@ -89,7 +247,7 @@ public class StudentIntegrationTest {
                 "Charlie",
                 "charlie@example.com",
                 LocalDate.of(1999, 3, 15));
-        Student savedStudent = studentRepository.save(student);
+        Student savedStudent = studentRepository.saveAndFlush(student);
         String updatedName = "Charlie Updated";
         String updatedEmail = "charlie.updated@example.com";
 
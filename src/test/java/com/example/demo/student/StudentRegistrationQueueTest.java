@@ -0,0 +1,175 @@
+package com.example.demo.student;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+public class StudentRegistrationQueueTest {
+
+    private final StudentImportService studentImportService = mock(StudentImportService.class);
+
+    private StudentRegistrationQueue queue;
+
+    @AfterEach
+    void tearDown() {
+        if (queue != null) {
+            queue.stop();
+        }
+    }
+
+    @Test
+    void itShouldRejectInvalidRegistrationsBeforeQueueing() {
+        // Given
+        queue = queue(10);
+
+        // When & Then
+        assertThatThrownBy(() -> queue.submit(new Student(null, "a@gmail.com", LocalDate.of(2000, 1, 1))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("name is required");
+    }
+
+    @Test
+    void itShouldApplyBackpressureWhenFull() {
+        // Given - writer not started, so nothing drains
+        queue = queue(2);
+
+        // When
+        Optional<StudentRegistration> first = queue.submit(student(1));
+        Optional<StudentRegistration> second = queue.submit(student(2));
+        Optional<StudentRegistration> third = queue.submit(student(3));
+
+        // Then
+        assertThat(first).isPresent();
+        assertThat(second).isPresent();
+        assertThat(third).isEmpty();
+        assertThat(queue.find(first.get().id()))
+                .hasValueSatisfying(registration ->
+                        assertThat(registration.state()).isEqualTo(StudentRegistration.State.PENDING));
+    }
+
+    @Test
+    void itShouldWriteQueuedRegistrationsAsOneBatch() {
+        // Given
+        queue = queue(10);
+        when(studentImportService.importChunk(anyList())).thenReturn(List.of(
+                new StudentImportResult(1, "student1@gmail.com", StudentImportResult.Status.IMPORTED, 11L, null),
+                new StudentImportResult(2, "student2@gmail.com", StudentImportResult.Status.DUPLICATE, null,
+                        "Student already exists")));
+        UUID first = queue.submit(student(1)).orElseThrow().id();
+        UUID second = queue.submit(student(2)).orElseThrow().id();
+
+        // When
+        queue.start();
+
+        // Then
+        verify(studentImportService, timeout(5000)).importChunk(anyList());
+        queue.stop();
+        assertThat(queue.find(first)).hasValueSatisfying(registration -> {
+            assertThat(registration.state()).isEqualTo(StudentRegistration.State.REGISTERED);
+            assertThat(registration.studentId()).isEqualTo(11L);
+        });
+        assertThat(queue.find(second)).hasValueSatisfying(registration ->
+                assertThat(registration.state()).isEqualTo(StudentRegistration.State.DUPLICATE));
+    }
+
+    @Test
+    void itShouldFallBackToSingleRowsWhenTheBatchHitsTheUniqueIndex() {
+        // Given
+        queue = queue(10);
+        when(studentImportService.importChunk(anyList()))
+                .thenThrow(new DataIntegrityViolationException("student_email_unique"))
+                .thenReturn(List.of(new StudentImportResult(
+                        1, "student1@gmail.com", StudentImportResult.Status.IMPORTED, 11L, null)))
+                .thenThrow(new DataIntegrityViolationException("student_email_unique"));
+        UUID first = queue.submit(student(1)).orElseThrow().id();
+        UUID second = queue.submit(student(2)).orElseThrow().id();
+
+        // When
+        queue.start();
+        verify(studentImportService, timeout(5000).times(3)).importChunk(anyList());
+        queue.stop();
+
+        // Then
+        assertThat(queue.find(first)).hasValueSatisfying(registration ->
+                assertThat(registration.state()).isEqualTo(StudentRegistration.State.REGISTERED));
+        assertThat(queue.find(second)).hasValueSatisfying(registration ->
+                assertThat(registration.state()).isEqualTo(StudentRegistration.State.DUPLICATE));
+    }
+
+    @Test
+    void itShouldFailRegistrationsOnOtherConstraintViolations() {
+        // Given
+        queue = queue(10);
+        when(studentImportService.importChunk(anyList()))
+                .thenThrow(new DataIntegrityViolationException("value too long for column name"));
+        UUID first = queue.submit(student(1)).orElseThrow().id();
+        UUID second = queue.submit(student(2)).orElseThrow().id();
+
+        // When
+        queue.start();
+        verify(studentImportService, timeout(5000)).importChunk(anyList());
+        queue.stop();
+
+        // Then - no row-by-row retry, and nothing reported as a duplicate
+        verify(studentImportService).importChunk(anyList());
+        assertThat(queue.find(first)).hasValueSatisfying(registration ->
+                assertThat(registration.state()).isEqualTo(StudentRegistration.State.FAILED));
+        assertThat(queue.find(second)).hasValueSatisfying(registration ->
+                assertThat(registration.state()).isEqualTo(StudentRegistration.State.FAILED));
+    }
+
+    @Test
+    void itShouldTurnRegistrationsAwayOnceStopping() {
+        // Given
+        queue = queue(10);
+        queue.start();
+
+        // When
+        queue.stop();
+
+        // Then
+        assertThat(queue.submit(student(1))).isEmpty();
+        verifyNoInteractions(studentImportService);
+    }
+
+    @Test
+    void itShouldStopOnlyAfterTheWebServer() {
+        // Given
+        queue = queue(10);
+
+        // Then - lifecycles stop in descending phase order
+        assertThat(queue.getPhase()).isLessThan(WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 1024);
+    }
+
+    private StudentRegistrationQueue queue(int capacity) {
+        return new StudentRegistrationQueue(
+                studentImportService,
+                new InMemoryStudentRegistrationStore(1000, Duration.ofMinutes(5)),
+                new SimpleMeterRegistry(),
+                "queued",
+                capacity,
+                100,
+                Duration.ofMillis(20));
+    }
+
+    private static Student student(int i) {
+        return new Student("Student " + i, "student" + i + "@gmail.com", LocalDate.of(2000, 1, 1));
+    }
+}
@@ -1,19 +1,34 @@
 package com.example.demo.student;
 
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 public class StudentRepositoryTest {
+    private static final int BATCH_SIZE = 50;
+
     @Autowired
     protected StudentRepository studentRepository;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Test
     void itShouldSaveStudent() {
         // Given
@@ -122,4 +137,134 @@ public class StudentRepositoryTest {
         // Then
         assertThat(updatedStudent.getName()).isEqualTo(newName);
     }
+
+    @Test
+    void itShouldBatchInserts() {
+        // Given
+        int count = 200;
+        List<Student> students = IntStream.range(0, count)
+                .mapToObj(i -> new Student(
+                        "Student " + i,
+                        "student" + i + "@gmail.com",
+                        LocalDate.of(2000, 1, 1)))
+                .toList();
+        Statistics statistics = entityManagerFactory
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+
+        // When
+        studentRepository.saveAll(students);
+        studentRepository.flush();
+
+        // Then - one insert batch and at most one nextval per block of 50
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(count);
+        assertThat(statistics.getPrepareStatementCount())
+                .isLessThanOrEqualTo(2L * count / BATCH_SIZE + 2);
+    }
+
+    @Test
+    void itShouldProjectStudentViewsWithAgeWithoutManagingEntities() {
+        // Given - birthdays either side of today so the month/day correction is exercised
+        LocalDate today = LocalDate.now();
+        Student hadBirthday = studentRepository.save(new Student(
+                "Had Birthday",
+                "had.birthday@gmail.com",
+                today.minusYears(20)));
+        Student birthdayTomorrow = studentRepository.save(new Student(
+                "Birthday Tomorrow",
+                "birthday.tomorrow@gmail.com",
+                today.minusYears(20).plusDays(1)));
+        studentRepository.flush();
+        entityManagerFactory.unwrap(SessionFactory.class).getStatistics().clear();
+
+        // When
+        List<StudentView> views = studentRepository.findStudentViewsAfter(
+                0L, PageRequest.ofSize(10));
+
+        // Then
+        assertThat(views).extracting(StudentView::id)
+                .containsExactly(hadBirthday.getId(), birthdayTomorrow.getId());
+        assertThat(views).extracting(StudentView::age)
+                .containsExactly(
+                        StudentAge.of(hadBirthday.getDob(), today),
+                        StudentAge.of(birthdayTomorrow.getDob(), today));
+        assertThat(entityManagerFactory.unwrap(SessionFactory.class)
+                .getStatistics().getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void itShouldDeleteWithOneStatementAndReportCount() {
+        // Given
+        Student student = studentRepository.saveAndFlush(new Student(
+                "Delete Me",
+                "delete.me@gmail.com",
+                LocalDate.of(2000, 1, 1)));
+        Statistics statistics = entityManagerFactory
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+
+        // When
+        int deleted = studentRepository.deleteStudentById(student.getId());
+        int deletedAgain = studentRepository.deleteStudentById(student.getId());
+
+        // Then
+        assertThat(deleted).isEqualTo(1);
+        assertThat(deletedAgain).isZero();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(studentRepository.existsById(student.getId())).isFalse();
+    }
+
+    @Test
+    void itShouldUpdateOnlyGivenColumnsAndKeepSearchKeysInStep() {
+        // Given
+        Student student = studentRepository.saveAndFlush(new Student(
+                "Old Name",
+                "old@gmail.com",
+                LocalDate.of(2000, 1, 1)));
+
+        // When
+        int updated = studentRepository.updateStudent(
+                student.getId(), null, null, "new@Example.com", "example.com");
+
+        // Then
+        assertThat(updated).isEqualTo(1);
+        assertThat(studentRepository.findById(student.getId())).hasValueSatisfying(reloaded -> {
+            assertThat(reloaded.getName()).isEqualTo("Old Name");
+            assertThat(reloaded.getEmail()).isEqualTo("new@Example.com");
+        });
+        assertThat(studentRepository.findStudentViewByEmail("new@Example.com")).isPresent();
+    }
+
+    @Test
+    void itShouldDropTheEmailDomainWhenTheNewEmailHasNone() {
+        // Given
+        Student student = studentRepository.saveAndFlush(new Student(
+                "No Domain",
+                "before@gmail.com",
+                LocalDate.of(2000, 1, 1)));
+
+        // When
+        int updated = studentRepository.updateStudent(
+                student.getId(), null, null, "no-domain", Student.emailDomainOf("no-domain"));
+        int renamed = studentRepository.updateStudentIfVersion(
+                student.getId(), 1L, "Renamed", "renamed", null, null);
+
+        // Then
+        assertThat(updated).isEqualTo(1);
+        assertThat(renamed).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForMap("SELECT email, email_domain FROM student WHERE id = ?", student.getId()))
+                .containsEntry("EMAIL", "no-domain")
+                .containsEntry("EMAIL_DOMAIN", null);
+    }
+
+    @Test
+    void itShouldReportZeroWhenUpdatingMissingStudent() {
+        // When
+        int updated = studentRepository.updateStudent(-1L, "Nobody", "nobody", null, null);
+
+        // Then
+        assertThat(updated).isZero();
+    }
 }
@@ -0,0 +1,191 @@
+package com.example.demo.student;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@Import(StudentSearchRepository.class)
+public class StudentSearchRepositoryTest {
+    private static final int STUDENTS = 2000;
+    private static final String[] NAMES = {"Alice", "Bob", "Carol", "Dave", "Erin", "Frank"};
+
+    @Autowired
+    private StudentSearchRepository studentSearchRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        studentRepository.saveAll(IntStream.range(0, STUDENTS)
+                .mapToObj(i -> new Student(
+                        NAMES[i % NAMES.length] + " " + i,
+                        "student" + i + "@domain" + (i % 40) + ".com",
+                        LocalDate.of(1970, 1, 1).plusDays(i * 7L)))
+                .toList());
+        studentRepository.flush();
+    }
+
+    @Test
+    void itShouldFindByNamePrefixIgnoringCase() {
+        // When
+        StudentSearchPage page = studentSearchRepository.search(
+                criteria("aLiCe 1", null, null, null, StudentSearchCriteria.Sort.NAME, null), 100);
+
+        // Then
+        assertThat(page.students()).isNotEmpty()
+                .allSatisfy(student -> assertThat(student.name()).startsWith("Alice 1"));
+    }
+
+    @Test
+    void itShouldTreatLikeWildcardsInPrefixLiterally() {
+        // When
+        StudentSearchPage page = studentSearchRepository.search(
+                criteria("%", null, null, null, StudentSearchCriteria.Sort.NAME, null), 100);
+
+        // Then
+        assertThat(page.students()).isEmpty();
+    }
+
+    @Test
+    void itShouldFindByEmailDomain() {
+        // When
+        StudentSearchPage page = studentSearchRepository.search(
+                criteria(null, "Domain7.com", null, null, StudentSearchCriteria.Sort.ID, null), 1000);
+
+        // Then
+        assertThat(page.students()).hasSize(STUDENTS / 40)
+                .allSatisfy(student -> assertThat(student.email()).endsWith("@domain7.com"));
+    }
+
+    @Test
+    void itShouldFindByAgeRange() {
+        // When
+        StudentSearchPage page = studentSearchRepository.search(
+                criteria(null, null, 30, 35, StudentSearchCriteria.Sort.DOB, null), 1000);
+
+        // Then
+        assertThat(page.students()).isNotEmpty()
+                .allSatisfy(student -> assertThat(student.age()).isBetween(30, 35));
+    }
+
+    @Test
+    void itShouldPageThroughEveryMatchExactlyOnce() {
+        // Given
+        List<StudentView> expected = studentSearchRepository.search(
+                criteria("b", null, null, null, StudentSearchCriteria.Sort.NAME, null), 1000)
+                .students();
+
+        // When
+        List<StudentView> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            StudentSearchPage page = studentSearchRepository.search(
+                    criteria("b", null, null, null, StudentSearchCriteria.Sort.NAME, cursor), 7);
+            paged.addAll(page.students());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        // Then
+        assertThat(paged).containsExactlyElementsOf(expected);
+        assertThat(paged).hasSize(STUDENTS / NAMES.length + 1);
+    }
+
+    @Test
+    void itShouldPageThroughStudentsWithoutNameOrDob() {
+        // Given
+        studentRepository.saveAllAndFlush(List.of(
+                new Student(null, "nameless1@gmail.com", null),
+                new Student(null, "nameless2@gmail.com", null),
+                new Student(null, "nameless3@gmail.com", null)));
+
+        for (StudentSearchCriteria.Sort sort : List.of(StudentSearchCriteria.Sort.NAME, StudentSearchCriteria.Sort.DOB)) {
+            List<StudentView> expected = studentSearchRepository.search(
+                    criteria(null, null, null, null, sort, null), STUDENTS + 3).students();
+
+            // When - the first page ends among the nulls
+            List<StudentView> paged = new ArrayList<>();
+            StudentSearchPage page = studentSearchRepository.search(criteria(null, null, null, null, sort, null), 2);
+            paged.addAll(page.students());
+            while (page.nextCursor() != null) {
+                page = studentSearchRepository.search(criteria(null, null, null, null, sort, page.nextCursor()), 500);
+                paged.addAll(page.students());
+            }
+
+            // Then
+            assertThat(expected.subList(0, 3)).extracting(StudentView::email)
+                    .containsExactly("nameless1@gmail.com", "nameless2@gmail.com", "nameless3@gmail.com");
+            assertThat(paged).as("sorted by %s", sort).containsExactlyElementsOf(expected);
+        }
+    }
+
+    @Test
+    void itShouldRejectGarbageCursor() {
+        assertThatThrownBy(() -> studentSearchRepository.search(
+                criteria(null, null, null, null, StudentSearchCriteria.Sort.DOB, "not-a-cursor"), 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid cursor");
+    }
+
+    @Test
+    void namePrefixShouldUseNameIndex() {
+        assertThat(explain(criteria("car", null, null, null, StudentSearchCriteria.Sort.NAME, null)))
+                .containsIgnoringCase("student_name_key_idx")
+                .doesNotContain("tableScan");
+    }
+
+    @Test
+    void emailDomainShouldUseDomainIndex() {
+        assertThat(explain(criteria(null, "domain3.com", null, null, StudentSearchCriteria.Sort.ID, null)))
+                .containsIgnoringCase("student_email_domain_idx")
+                .doesNotContain("tableScan");
+    }
+
+    @Test
+    void ageRangeShouldUseDobIndex() {
+        assertThat(explain(criteria(null, null, 20, 25, StudentSearchCriteria.Sort.DOB, null)))
+                .containsIgnoringCase("student_dob_idx")
+                .doesNotContain("tableScan");
+    }
+
+    @Test
+    void dobCursorShouldUseDobIndex() {
+        String cursor = new StudentSearchQuery(
+                criteria(null, null, null, null, StudentSearchCriteria.Sort.DOB, null), 10, LocalDate.now())
+                .cursorAfter(new StudentView(10L, "Erin 10", "e@x.com", LocalDate.of(1990, 1, 1), null, 0L));
+
+        assertThat(explain(criteria(null, null, null, null, StudentSearchCriteria.Sort.DOB, cursor)))
+                .containsIgnoringCase("student_dob_idx")
+                .doesNotContain("tableScan");
+    }
+
+    private String explain(StudentSearchCriteria criteria) {
+        StudentSearchQuery query = new StudentSearchQuery(criteria, 100, LocalDate.now());
+        return jdbcTemplate.queryForObject("EXPLAIN " + query.sql(), query.params(), String.class);
+    }
+
+    private static StudentSearchCriteria criteria(String namePrefix,
+                                                  String emailDomain,
+                                                  Integer minAge,
+                                                  Integer maxAge,
+                                                  StudentSearchCriteria.Sort sort,
+                                                  String cursor) {
+        return new StudentSearchCriteria(
+                namePrefix, emailDomain, null, null, minAge, maxAge, sort, cursor, 100);
+    }
+}
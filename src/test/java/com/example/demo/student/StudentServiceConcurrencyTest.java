@@ -0,0 +1,131 @@
+package com.example.demo.student;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import({StudentService.class, StudentSearchRepository.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class StudentServiceConcurrencyTest {
+
+    // stays empty, so every lookup goes to the database
+    @MockBean
+    private StudentIndex studentIndex;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @AfterEach
+    void tearDown() {
+        studentRepository.deleteAll();
+    }
+
+    @Test
+    void onlyOneOfManyConcurrentDuplicateRegistrationsSucceeds() throws Exception {
+        // Given
+        int attempts = 16;
+        String email = "racer@gmail.com";
+        ExecutorService executor = Executors.newFixedThreadPool(attempts);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> registrations = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < attempts; i++) {
+            Student student = new Student(
+                    "Racer " + i,
+                    email,
+                    LocalDate.of(2000, 1, 1));
+            registrations.add(executor.submit(() -> {
+                start.await();
+                try {
+                    studentService.addNewStudent(student);
+                    return true;
+                } catch (IllegalArgumentException e) {
+                    return false;
+                }
+            }));
+        }
+        start.countDown();
+
+        int successes = 0;
+        for (Future<Boolean> registration : registrations) {
+            if (registration.get(30, TimeUnit.SECONDS)) {
+                successes++;
+            }
+        }
+        executor.shutdown();
+
+        // Then
+        assertThat(successes).isEqualTo(1);
+        assertThat(studentRepository.findExistingEmails(List.of(email)))
+                .containsExactly(email);
+    }
+
+    @Test
+    void concurrentVersionedPatchesNeverLoseAnUpdate() throws Exception {
+        // Given - every writer increments a counter held in the name, read-modify-write
+        int writers = 8;
+        int incrementsPerWriter = 25;
+        Student student = studentRepository.save(new Student(
+                "counter 0",
+                "counter@gmail.com",
+                LocalDate.of(2000, 1, 1)));
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < writers; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                int conflicts = 0;
+                for (int done = 0; done < incrementsPerWriter; ) {
+                    StudentView current = studentService.getStudent(student.getId());
+                    int counter = Integer.parseInt(current.name().substring("counter ".length()));
+                    try {
+                        studentService.patchStudent(
+                                student.getId(),
+                                current.version(),
+                                new StudentPatch("counter " + (counter + 1), null));
+                        done++;
+                    } catch (StudentVersionConflictException e) {
+                        conflicts++;
+                    }
+                }
+                return conflicts;
+            }));
+        }
+        start.countDown();
+
+        for (Future<Integer> result : results) {
+            result.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Then - every successful patch is reflected exactly once
+        int expected = writers * incrementsPerWriter;
+        StudentView finalState = studentService.getStudent(student.getId());
+        assertThat(finalState.name()).isEqualTo("counter " + expected);
+        assertThat(finalState.version()).isEqualTo((long) expected);
+    }
+}
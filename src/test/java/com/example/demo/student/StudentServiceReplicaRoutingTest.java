@@ -0,0 +1,144 @@
+package com.example.demo.student;
+
+import com.example.demo.jdbc.ReplicaStickiness;
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The service read paths under the real JpaTransactionManager, against a
+// primary and a replica that hold different rows, so every answer shows
+// which node it came from.
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {
+                "spring.datasource.url=" + StudentServiceReplicaRoutingTest.PRIMARY_URL,
+                "spring.datasource.username=sa",
+                "student.datasource.replica-urls=" + StudentServiceReplicaRoutingTest.REPLICA_URL,
+                "student.seed.enabled=false"})
+public class StudentServiceReplicaRoutingTest {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:service-routing-primary;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_URL = "jdbc:h2:mem:service-routing-replica;DB_CLOSE_DELAY=-1";
+
+    private static final long ID = 1_000_000;
+    private static final String EMAIL = "routed@example.com";
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private StudentChangeTracker studentChangeTracker;
+
+    @Autowired
+    private ReplicaStickiness replicaStickiness;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void setUp() {
+        primary = new JdbcTemplate(node(PRIMARY_URL));
+        JdbcDataSource replicaNode = node(REPLICA_URL);
+        Flyway.configure()
+                .dataSource(replicaNode)
+                .locations("classpath:db/migration/h2")
+                .load()
+                .migrate();
+        replica = new JdbcTemplate(replicaNode);
+
+        insert(primary, "Primary Node");
+        insert(replica, "Replica Node");
+        // a replica that has seen more changes than the primary, so the
+        // change id also shows which node answered
+        replica.update("INSERT INTO student_change (id, type, student_id, created_at)"
+                + " VALUES (900, 'CREATED', ?, CURRENT_TIMESTAMP)", ID);
+    }
+
+    @AfterEach
+    void tearDown() {
+        replicaStickiness.end();
+        for (JdbcTemplate node : new JdbcTemplate[]{primary, replica}) {
+            node.update("DELETE FROM student_change");
+            node.update("DELETE FROM student");
+        }
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    void listsAndTheirChangeIdComeFromTheSameReplica() {
+        // When
+        StudentPage page = studentService.getStudents(null, 10);
+
+        // Then
+        assertThat(page.students()).extracting(StudentView::name).containsExactly("Replica Node");
+        assertThat(page.changeId()).isEqualTo(900L);
+        assertThat(studentChangeTracker.currentETag()).isEqualTo("\"900\"");
+    }
+
+    @Test
+    void searchesAndTheirChangeIdComeFromTheSameReplica() {
+        // When
+        StudentSearchPage page = studentService.searchStudents(new StudentSearchCriteria(
+                "pri", null, null, null, null, null, StudentSearchCriteria.Sort.NAME, null, 10));
+        StudentSearchPage replicaPage = studentService.searchStudents(new StudentSearchCriteria(
+                "rep", null, null, null, null, null, StudentSearchCriteria.Sort.NAME, null, 10));
+
+        // Then
+        assertThat(page.students()).isEmpty();
+        assertThat(replicaPage.students()).extracting(StudentView::name).containsExactly("Replica Node");
+        assertThat(replicaPage.changeId()).isEqualTo(900L);
+    }
+
+    @Test
+    void cachedLookupsReadFromThePrimary() {
+        // When
+        StudentView byId = studentService.getStudent(ID);
+        StudentView byEmail = studentService.getStudentByEmail(EMAIL);
+
+        // Then
+        assertThat(byId.name()).isEqualTo("Primary Node");
+        assertThat(byEmail.name()).isEqualTo("Primary Node");
+    }
+
+    @Test
+    void aClientThatWroteReadsItsListsFromThePrimary() {
+        // Given
+        replicaStickiness.begin("client-a");
+        studentService.updateStudent(ID, "Renamed", null);
+
+        // When
+        StudentPage page = studentService.getStudents(null, 10);
+
+        // Then
+        assertThat(page.students()).extracting(StudentView::name).containsExactly("Renamed");
+        assertThat(page.changeId()).isNotEqualTo(900L);
+    }
+
+    private static void insert(JdbcTemplate node, String name) {
+        node.update("INSERT INTO student (id, name, name_key, email, email_domain, dob, version)"
+                        + " VALUES (?, ?, ?, ?, ?, ?, 0)",
+                ID, name, Student.nameKeyOf(name), EMAIL, Student.emailDomainOf(EMAIL),
+                Date.valueOf(LocalDate.of(2000, 1, 1)));
+    }
+
+    private static JdbcDataSource node(String url) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL(url);
+        dataSource.setUser("sa");
+        return dataSource;
+    }
+}
@@ -5,22 +5,37 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 
 import java.time.LocalDate;
 import java.util.List;
-import java.util.Optional;
 
 public class StudentServiceTest {
 
     @Mock
     private StudentRepository studentRepository;
 
+    @Mock
+    private StudentChangeRepository studentChangeRepository;
+
+    @Mock
+    private StudentSearchRepository studentSearchRepository;
+
+    @Mock
+    private StudentIndex studentIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private StudentService studentService;
 
@@ -39,26 +54,80 @@ public class StudentServiceTest {
     @Test
     void canGetAllStudents() {
         // Given
-        Student student1 = new Student(
+        StudentView student1 = new StudentView(
+                1L,
                 "John Doe",
                 "john.doe@google.com",
-                LocalDate.of(2000, 1, 1));
+                LocalDate.of(2000, 1, 1),
+                24,
+                0L);
 
-        Student student2 = new Student(
+        StudentView student2 = new StudentView(
+                2L,
                 "Jane Doe",
                 "jane.doe@google.com",
-                LocalDate.of(2001, 1, 1));
+                LocalDate.of(2001, 1, 1),
+                23,
+                0L);
 
-        when(studentRepository.findAll())
+        when(studentRepository.findStudentViewsAfter(0L, PageRequest.ofSize(100)))
                 .thenReturn(List.of(student1, student2));
+        when(studentChangeRepository.findLatestId()).thenReturn(7L);
 
         // When
-        List<Student> students = studentService.getStudents();
+        StudentPage page = studentService.getStudents(null, 100);
 
         // Then
+        List<StudentView> students = page.students();
         assertEquals(2, students.size());
-        assertEquals("John Doe", students.get(0).getName());
-        assertEquals("Jane Doe", students.get(1).getName());
+        assertEquals("John Doe", students.get(0).name());
+        assertEquals("Jane Doe", students.get(1).name());
+        assertNull(page.nextCursor());
+        assertEquals(7L, page.changeId());
+    }
+
+    @Test
+    void getStudentsReturnsNextCursorWhenPageIsFull() {
+        // Given
+        StudentView student = new StudentView(
+                42L,
+                "John Doe",
+                "john.doe@google.com",
+                LocalDate.of(2000, 1, 1),
+                24,
+                0L);
+        when(studentRepository.findStudentViewsAfter(41L, PageRequest.ofSize(1)))
+                .thenReturn(List.of(student));
+
+        // When
+        StudentPage page = studentService.getStudents(41L, 1);
+
+        // Then
+        assertEquals(42L, page.nextCursor());
+    }
+
+    @Test
+    void getStudentsCapsPageSize() {
+        // When
+        studentService.getStudents(null, 1_000_000);
+
+        // Then
+        verify(studentRepository).findStudentViewsAfter(
+                0L, PageRequest.ofSize(StudentService.MAX_PAGE_SIZE));
+    }
+
+    @Test
+    void searchStudentsCapsPageSize() {
+        // Given
+        StudentSearchCriteria criteria = new StudentSearchCriteria(
+                "jo", null, null, null, null, null,
+                StudentSearchCriteria.Sort.NAME, null, 1_000_000);
+
+        // When
+        studentService.searchStudents(criteria);
+
+        // Then
+        verify(studentSearchRepository).search(criteria, StudentService.MAX_PAGE_SIZE);
     }
 
     @Test
@@ -68,14 +137,18 @@ public class StudentServiceTest {
                 "John Doe",
                 "john.doe@gmail.com",
                 LocalDate.of(2001,1,1));
-        when(studentRepository.findStudentByEmail(student.getEmail()))
-                .thenReturn(Optional.empty());
+        when(studentRepository.saveAndFlush(student)).thenAnswer(invocation -> {
+            student.setId(1L);
+            return student;
+        });
 
         // When
         studentService.addNewStudent(student);
 
         // Then
-        verify(studentRepository).save(student);
+        verify(studentRepository).saveAndFlush(student);
+        verify(studentRepository, never()).findStudentByEmail(any());
+        verify(eventPublisher).publishEvent(StudentChangedEvent.created(1L));
     }
 
     @Test
@@ -85,13 +158,30 @@ public class StudentServiceTest {
                 "John Doe",
                 "john.doe@gmail.com",
                 LocalDate.of(2001,1,1));
-        when(studentRepository.findStudentByEmail(student.getEmail()))
-                .thenReturn(Optional.of(student));
+        when(studentRepository.saveAndFlush(student))
+                .thenThrow(new DataIntegrityViolationException("student_email_unique"));
+
+        // When & Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> studentService.addNewStudent(student));
+        assertEquals("Student already exists", exception.getMessage());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void addNewStudentPropagatesOtherConstraintViolations() {
+        // Given
+        Student student = new Student(
+                "John Doe",
+                "john.doe@gmail.com",
+                LocalDate.of(2001,1,1));
+        when(studentRepository.saveAndFlush(student))
+                .thenThrow(new DataIntegrityViolationException("Value too long for column \"NAME\""));
 
         // When & Then
-        assertThrows(IllegalArgumentException.class,
+        assertThrows(DataIntegrityViolationException.class,
                 () -> studentService.addNewStudent(student));
-        verify(studentRepository, never()).save(any());
+        verifyNoInteractions(eventPublisher);
     }
 
 
@@ -99,63 +189,58 @@ public class StudentServiceTest {
     void canDeleteStudent() {
         // Given
         Long studentId = 1L;
-        when(studentRepository.existsById(studentId))
-                .thenReturn(true);
+        when(studentRepository.deleteStudentById(studentId))
+                .thenReturn(1);
 
         // When
         studentService.deleteStudent(studentId);
 
         // Then
-        verify(studentRepository).deleteById(studentId);
+        verify(studentRepository).deleteStudentById(studentId);
+        verify(studentRepository, never()).existsById(any());
+        verify(eventPublisher).publishEvent(StudentChangedEvent.deleted(studentId));
     }
 
     @Test
     void deleteStudentThrowsExceptionWhenStudentDoesNotExist() {
         // Given
         Long studentId = 1L;
-        when(studentRepository.existsById(studentId))
-                .thenReturn(Boolean.FALSE);
+        when(studentRepository.deleteStudentById(studentId))
+                .thenReturn(0);
 
         // When & Then
-        assertThrows(IllegalArgumentException.class,
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
                 () -> studentService.deleteStudent(studentId));
-        verify(studentRepository, never()).deleteById(studentId);
+        assertEquals("Student with id 1 does not exist", exception.getMessage());
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
     void canUpdateStudentNameAndEmail() {
         // Given
         Long studentId = 1L;
-        Student student = new Student(
-                "John Doe",
-                "john.doe@gmail.com",
-                LocalDate.of(2001,1,1));
-        when(studentRepository.findById(studentId))
-                .thenReturn(Optional.of(student));
-        when(studentRepository.findStudentByEmail("new.email@gmail.com"))
-                .thenReturn(Optional.empty());
+        when(studentRepository.updateStudent(any(), any(), any(), any(), any()))
+                .thenReturn(1);
 
         // When
         studentService.updateStudent(
                 studentId,
                 "New Name",
-                "new.email@gmail.com");
+                "new.email@Gmail.com");
 
         // Then
-        assertEquals("New Name", student.getName());
-        assertEquals("new.email@gmail.com", student.getEmail());
+        verify(studentRepository).updateStudent(
+                studentId, "New Name", "new name", "new.email@Gmail.com", "gmail.com");
+        verify(studentRepository, never()).findById(any());
+        verify(eventPublisher).publishEvent(StudentChangedEvent.updated(studentId));
     }
 
     @Test
     void canUpdateStudentNameOnly() {
         // Given
         Long studentId = 1L;
-        Student student = new Student(
-                "John Doe",
-                "john.doe@gmail.com",
-                LocalDate.of(2001,1,1));
-        when(studentRepository.findById(studentId))
-                .thenReturn(Optional.of(student));
+        when(studentRepository.updateStudent(any(), any(), any(), any(), any()))
+                .thenReturn(1);
 
         // When
         studentService.updateStudent(
@@ -164,72 +249,106 @@ public class StudentServiceTest {
                 null);
 
         // Then
-        assertEquals("Updated Name", student.getName());
-        assertEquals("john.doe@gmail.com", student.getEmail());
+        verify(studentRepository).updateStudent(
+                studentId, "Updated Name", "updated name", null, null);
     }
 
     @Test
     void canUpdateStudentEmailOnly() {
         // Given
         Long studentId = 1L;
-        Student student = new Student(
-                "John Doe",
-                "john.doe@gmail.com",
-                LocalDate.of(2001,1,1));
-        when(studentRepository.findById(studentId))
-                .thenReturn(Optional.of(student));
-        when(studentRepository.findStudentByEmail("updated.email@gmail.com"))
-                .thenReturn(Optional.empty());
+        when(studentRepository.updateStudent(any(), any(), any(), any(), any()))
+                .thenReturn(1);
 
         // When
         studentService.updateStudent(
                 studentId,
-                null,
+                "",
                 "updated.email@gmail.com");
 
         // Then
-        assertEquals("John Doe", student.getName());
-        assertEquals("updated.email@gmail.com", student.getEmail());
+        verify(studentRepository).updateStudent(
+                studentId, null, null, "updated.email@gmail.com", "gmail.com");
     }
 
     @Test
     void updateStudentThrowsExceptionWhenStudentDoesNotExist() {
         // Given
         Long studentId = 1L;
-        when(studentRepository.existsById(studentId))
-                .thenReturn(Boolean.FALSE);
+        when(studentRepository.updateStudent(any(), any(), any(), any(), any()))
+                .thenReturn(0);
 
         // When & Then
-        assertThrows(IllegalArgumentException.class,
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
                 () -> studentService.updateStudent(
                         studentId,
                         "New Name",
                         "new.email@gmail.com"));
+        assertEquals("Student with id 1 does not exist", exception.getMessage());
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
     void updateStudentThrowsExceptionWhenEmailAlreadyExists() {
         // Given
         Long studentId = 1L;
-        Student student = new Student(
-                "John Doe",
-                "john.doe@gmail.com",
-                LocalDate.of(2001,1,1));
-        Student existingStudent = new Student(
-                "Existing User",
-                "existing.email@gmail.com",
-                LocalDate.of(2005,5,5)
-        );
-        when(studentRepository.findById(studentId))
-                .thenReturn(Optional.of(student));
-        when(studentRepository.findStudentByEmail("existing.email@gmail.com"))
-                .thenReturn(Optional.of(existingStudent));
+        when(studentRepository.updateStudent(any(), any(), any(), any(), any()))
+                .thenThrow(new DataIntegrityViolationException("student_email_unique"));
 
         // When & Then
-        assertThrows(IllegalArgumentException.class,
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
                 () -> studentService.updateStudent(
                         studentId,
                         null,
                         "existing.email@gmail.com"));
+        assertEquals("Student with this email already exists", exception.getMessage());
+        verify(studentRepository, never()).findStudentByEmail(any());
+    }
+
+    @Test
+    void canPatchStudentAtExpectedVersion() {
+        // Given
+        Long studentId = 1L;
+        when(studentRepository.updateStudentIfVersion(any(), any(), any(), any(), any(), any()))
+                .thenReturn(1);
+
+        // When
+        studentService.patchStudent(studentId, 3L, new StudentPatch("New Name", null));
+
+        // Then
+        verify(studentRepository).updateStudentIfVersion(
+                studentId, 3L, "New Name", "new name", null, null);
+        verify(studentRepository, never()).existsById(any());
+        verify(eventPublisher).publishEvent(StudentChangedEvent.updated(studentId));
+    }
+
+    @Test
+    void patchStudentThrowsConflictWhenVersionIsStale() {
+        // Given
+        Long studentId = 1L;
+        when(studentRepository.updateStudentIfVersion(any(), any(), any(), any(), any(), any()))
+                .thenReturn(0);
+        when(studentRepository.existsById(studentId))
+                .thenReturn(true);
+
+        // When & Then
+        assertThrows(StudentVersionConflictException.class,
+                () -> studentService.patchStudent(studentId, 3L, new StudentPatch("New Name", null)));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void patchStudentThrowsExceptionWhenStudentDoesNotExist() {
+        // Given
+        Long studentId = 1L;
+        when(studentRepository.updateStudentIfVersion(any(), any(), any(), any(), any(), any()))
+                .thenReturn(0);
+        when(studentRepository.existsById(studentId))
+                .thenReturn(false);
+
+        // When & Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> studentService.patchStudent(studentId, 3L, new StudentPatch("New Name", null)));
+        assertEquals("Student with id 1 does not exist", exception.getMessage());
     }
 }
@@ -0,0 +1,51 @@
+package com.example.demo.web;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AdaptiveConcurrencyLimitFilterTest {
+
+    private static final String IMPORT = "/api/v1/student/import";
+
+    // every request takes longer than the normal threshold, none longer than the bulk one
+    private final FilterChain slowChain = (request, response) -> sleep();
+
+    private final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 1, 100, 0);
+    private final AdaptiveConcurrencyLimitFilter filter = new AdaptiveConcurrencyLimitFilter(
+            limit, Duration.ZERO, Set.of(IMPORT), Duration.ofHours(1), () -> false, new SimpleMeterRegistry());
+
+    @Test
+    void itShouldCutTheLimitWhenARequestIsSlow() throws Exception {
+        // When
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/student"), new MockHttpServletResponse(), slowChain);
+
+        // Then
+        assertThat(limit.limit()).isEqualTo(18);
+    }
+
+    @Test
+    void itShouldHoldBulkRequestsToTheirOwnThreshold() throws Exception {
+        // When
+        filter.doFilter(new MockHttpServletRequest("POST", IMPORT), new MockHttpServletResponse(), slowChain);
+
+        // Then
+        assertThat(limit.limit()).isEqualTo(20);
+        assertThat(limit.inFlight()).isZero();
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(2);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.demo.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AdaptiveConcurrencyLimitTest {
+
+    private static final long COOLDOWN = TimeUnit.MILLISECONDS.toNanos(250);
+
+    private final AtomicLong now = new AtomicLong(COOLDOWN * 10);
+
+    @Test
+    void itShouldRejectOnceTheLimitIsInFlight() {
+        // Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, COOLDOWN, now::get);
+
+        // When
+        boolean first = limit.tryAcquire();
+        boolean second = limit.tryAcquire();
+        boolean third = limit.tryAcquire();
+
+        // Then
+        assertThat(first).isTrue();
+        assertThat(second).isTrue();
+        assertThat(third).isFalse();
+
+        // When
+        limit.release(false);
+
+        // Then
+        assertThat(limit.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void itShouldGrowByOneAfterALimitOfHealthyRequests() {
+        // Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 1, 10, COOLDOWN, now::get);
+
+        // When
+        for (int i = 0; i < 4; i++) {
+            limit.tryAcquire();
+            limit.release(false);
+        }
+
+        // Then
+        assertThat(limit.limit()).isEqualTo(5);
+        assertThat(limit.inFlight()).isZero();
+    }
+
+    @Test
+    void itShouldShrinkOnOverloadAtMostOncePerCooldown() {
+        // Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(100, 10, 400, COOLDOWN, now::get);
+
+        // When
+        limit.tryAcquire();
+        limit.release(true);
+        limit.tryAcquire();
+        limit.release(true);
+
+        // Then
+        assertThat(limit.limit()).isEqualTo(90);
+
+        // When
+        now.addAndGet(COOLDOWN);
+        limit.tryAcquire();
+        limit.release(true);
+
+        // Then
+        assertThat(limit.limit()).isEqualTo(81);
+    }
+
+    @Test
+    void itShouldNotShrinkBelowTheMinimum() {
+        // Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 10, 400, COOLDOWN, now::get);
+
+        // When
+        limit.tryAcquire();
+        limit.release(true);
+
+        // Then
+        assertThat(limit.limit()).isEqualTo(10);
+    }
+}
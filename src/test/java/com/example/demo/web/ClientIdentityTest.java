@@ -0,0 +1,52 @@
+package com.example.demo.web;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ClientIdentityTest {
+
+    @Test
+    void itShouldIgnoreTheClientIdHeaderUnlessAGatewaySetsIt() {
+        // Given
+        MockHttpServletRequest request = request("spoofed");
+
+        // When
+        String client = new ClientIdentity(false).of(request);
+
+        // Then
+        assertThat(client).isEqualTo("10.0.0.7");
+    }
+
+    @Test
+    void itShouldUseTheClientIdHeaderFromATrustedGateway() {
+        // Given
+        MockHttpServletRequest request = request("client-a");
+
+        // When
+        String client = new ClientIdentity(true).of(request);
+
+        // Then
+        assertThat(client).isEqualTo("client-a");
+    }
+
+    @Test
+    void itShouldFallBackToTheRemoteAddressWhenTheGatewaySendsNoId() {
+        // Given
+        MockHttpServletRequest request = request(" ");
+
+        // When
+        String client = new ClientIdentity(true).of(request);
+
+        // Then
+        assertThat(client).isEqualTo("10.0.0.7");
+    }
+
+    private static MockHttpServletRequest request(String clientId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/student");
+        request.setRemoteAddr("10.0.0.7");
+        request.addHeader(ClientIdentity.CLIENT_ID_HEADER, clientId);
+        return request;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.demo.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ClientRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(1_000);
+
+    @Test
+    void itShouldAllowTheBurstAndThenTheRate() {
+        // Given
+        ClientRateLimiter limiter = new ClientRateLimiter(10, 3, now::get);
+
+        // When
+        long first = limiter.tryAcquire("client-a");
+        long second = limiter.tryAcquire("client-a");
+        long third = limiter.tryAcquire("client-a");
+        long fourth = limiter.tryAcquire("client-a");
+
+        // Then
+        assertThat(first).isZero();
+        assertThat(second).isZero();
+        assertThat(third).isZero();
+        assertThat(fourth).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+
+        // When - one emission interval later a single permit is back
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+
+        // Then
+        assertThat(limiter.tryAcquire("client-a")).isZero();
+        assertThat(limiter.tryAcquire("client-a")).isPositive();
+    }
+
+    @Test
+    void itShouldKeepClientsApart() {
+        // Given
+        ClientRateLimiter limiter = new ClientRateLimiter(1, 1, now::get);
+        limiter.tryAcquire("client-a");
+
+        // When
+        long otherClient = limiter.tryAcquire("client-b");
+
+        // Then
+        assertThat(limiter.tryAcquire("client-a")).isPositive();
+        assertThat(otherClient).isZero();
+    }
+
+    @Test
+    void itShouldNotBankPermitsBeyondTheBurstWhileIdle() {
+        // Given
+        ClientRateLimiter limiter = new ClientRateLimiter(10, 2, now::get);
+        limiter.tryAcquire("client-a");
+
+        // When
+        now.addAndGet(TimeUnit.SECONDS.toNanos(60));
+
+        // Then
+        assertThat(limiter.tryAcquire("client-a")).isZero();
+        assertThat(limiter.tryAcquire("client-a")).isZero();
+        assertThat(limiter.tryAcquire("client-a")).isPositive();
+    }
+}